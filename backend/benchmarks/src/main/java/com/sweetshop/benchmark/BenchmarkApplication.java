@@ -0,0 +1,69 @@
+package com.sweetshop.benchmark;
+
+import com.sweetshop.SweetShopApplication;
+import com.sweetshop.entity.Sweet;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Starts the backend against an in-memory H2 database, configured like the tests
+final class BenchmarkApplication {
+    
+    private static final int INSERT_BATCH_SIZE = 1000;
+    
+    private BenchmarkApplication() {
+    }
+    
+    static ConfigurableApplicationContext start(String database, String... extraProperties) {
+        return new SpringApplicationBuilder(SweetShopApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.datasource.url=jdbc:h2:mem:" + database + ";DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE;LOCK_TIMEOUT=10000",
+                        "spring.datasource.username=sa",
+                        "spring.datasource.password=",
+                        "spring.datasource.driver-class-name=org.h2.Driver",
+                        "spring.flyway.enabled=false",
+                        "spring.jpa.hibernate.ddl-auto=create-drop",
+                        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                        "spring.jpa.properties.hibernate.format_sql=false",
+                        "jwt.secret=benchmark-jwt-secret-key-for-hmac-sha256-signing",
+                        "rate-limit.enabled=false",
+                        "concurrency-limit.enabled=false",
+                        "logging.level.com.sweetshop=WARN",
+                        "logging.level.org.springframework=WARN",
+                        "logging.level.org.hibernate=WARN")
+                .properties(extraProperties)
+                .logStartupInfo(false)
+                .run();
+    }
+    
+    // Sweets are spread over every category and a 10.00-509.99 price range, newest last
+    static void seedSweets(ConfigurableApplicationContext context, int count, int quantity) {
+        JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+        Sweet.Category[] categories = Sweet.Category.values();
+        LocalDateTime start = LocalDateTime.now().minusSeconds(count);
+        List<Object[]> batch = new ArrayList<>(INSERT_BATCH_SIZE);
+        for (int i = 0; i < count; i++) {
+            Timestamp createdAt = Timestamp.valueOf(start.plusSeconds(i));
+            batch.add(new Object[]{
+                    "Sweet " + i,
+                    categories[i % categories.length].name(),
+                    BigDecimal.valueOf(1000 + (i * 7919L) % 50_000, 2),
+                    quantity,
+                    "Synthetic sweet number " + i,
+                    createdAt,
+                    createdAt});
+            if (batch.size() == INSERT_BATCH_SIZE || i == count - 1) {
+                jdbc.batchUpdate("INSERT INTO sweets (name, category, price, quantity, description, created_at, updated_at) "
+                        + "VALUES (?, ?, ?, ?, ?, ?, ?)", batch);
+                batch.clear();
+            }
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.sweetshop.benchmark;
+
+import com.sweetshop.entity.User;
+import com.sweetshop.security.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+
+import javax.crypto.SecretKey;
+import java.util.Base64;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtBenchmark {
+    
+    private static final String SECRET = "benchmark-jwt-secret-key-for-hmac-sha256-signing";
+    private static final long EXPIRATION = 3_600_000;
+    
+    private JwtUtil uncachedJwtUtil;
+    private JwtUtil cachedJwtUtil;
+    private User user;
+    private String token;
+    
+    @Setup
+    public void setUp() {
+        uncachedJwtUtil = new JwtUtil(SECRET, EXPIRATION, 0);
+        cachedJwtUtil = new JwtUtil(SECRET, EXPIRATION, 10_000);
+        user = User.builder()
+                .email("bench@example.com")
+                .password("unused")
+                .name("Bench User")
+                .role(User.Role.USER)
+                .build();
+        token = cachedJwtUtil.generateToken(user, 1L, "user");
+    }
+    
+    @Benchmark
+    public String generateToken() {
+        return cachedJwtUtil.generateToken(user, 1L, "user");
+    }
+    
+    // The filter before the rework: extractUsername, then validateToken parsed twice more, rebuilding the key each time
+    @Benchmark
+    public boolean legacyValidate() {
+        String username = legacyParse(token).getSubject();
+        return legacyParse(token).getSubject().equals(username)
+                && username.equals(user.getUsername())
+                && !legacyParse(token).getExpiration().before(new Date());
+    }
+    
+    @Benchmark
+    public boolean singleParse() {
+        Claims claims = uncachedJwtUtil.parseToken(token);
+        return uncachedJwtUtil.validateToken(claims, user);
+    }
+    
+    @Benchmark
+    public boolean cachedParse() {
+        Claims claims = cachedJwtUtil.parseToken(token);
+        return cachedJwtUtil.validateToken(claims, user);
+    }
+    
+    private static Claims legacyParse(String token) {
+        byte[] keyBytes = Decoders.BASE64.decode(Base64.getEncoder().encodeToString(SECRET.getBytes()));
+        SecretKey key = Keys.hmacShaKeyFor(keyBytes);
+        return Jwts.parser()
+                .verifyWith(key)
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+    }
+}
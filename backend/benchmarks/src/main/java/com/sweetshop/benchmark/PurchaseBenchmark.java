@@ -0,0 +1,64 @@
+package com.sweetshop.benchmark;
+
+import com.sweetshop.dto.PurchaseResponse;
+import com.sweetshop.service.StockLeaseService;
+import com.sweetshop.service.SweetService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+// Single-unit purchases of one hot sweet, alone and with eight buyers at once
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PurchaseBenchmark {
+    
+    // Enough stock that no run sells out
+    private static final int STOCK = 1_000_000_000;
+    
+    @Param({"false", "true"})
+    private boolean stockLeasing;
+    
+    private ConfigurableApplicationContext context;
+    private SweetService sweetService;
+    private StockLeaseService stockLeaseService;
+    private long sweetId;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start("purchase" + stockLeasing, "stock-leasing.enabled=" + stockLeasing);
+        BenchmarkApplication.seedSweets(context, 100, STOCK);
+        sweetService = context.getBean(SweetService.class);
+        stockLeaseService = context.getBean(StockLeaseService.class);
+        sweetId = context.getBean(JdbcTemplate.class).queryForObject("SELECT MIN(id) FROM sweets", Long.class);
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+    
+    @Benchmark
+    @Threads(1)
+    public PurchaseResponse uncontended() {
+        return purchase();
+    }
+    
+    @Benchmark
+    @Threads(8)
+    public PurchaseResponse contended() {
+        return purchase();
+    }
+    
+    // Same choice SweetController makes for a purchase without a store
+    private PurchaseResponse purchase() {
+        return stockLeaseService.isEnabled()
+                ? stockLeaseService.purchase(sweetId, 1)
+                : sweetService.purchaseSweet(sweetId, 1);
+    }
+}
@@ -0,0 +1,50 @@
+package com.sweetshop.benchmark;
+
+import com.sweetshop.security.BloomFilter;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// Cost of the per-request denylist check for a token that is not revoked
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RevocationBenchmark {
+    
+    @Param({"0", "10000"})
+    private int revokedTokens;
+    
+    private BloomFilter filter;
+    private Map<String, Long> exact;
+    private String jti;
+    
+    @Setup
+    public void setUp() {
+        filter = new BloomFilter(100_000, 0.01);
+        exact = new ConcurrentHashMap<>();
+        for (int i = 0; i < revokedTokens; i++) {
+            String revoked = UUID.randomUUID().toString();
+            filter.put(revoked);
+            exact.put(revoked, Long.MAX_VALUE);
+        }
+        // The claims cache hands back the same String, so its hash code is already computed
+        jti = UUID.randomUUID().toString();
+        jti.hashCode();
+    }
+    
+    @Benchmark
+    public boolean bloomThenExact() {
+        return filter.mightContain(jti) && exact.containsKey(jti);
+    }
+    
+    @Benchmark
+    public boolean exactOnly() {
+        return exact.containsKey(jti);
+    }
+}
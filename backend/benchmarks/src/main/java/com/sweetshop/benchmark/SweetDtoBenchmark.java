@@ -0,0 +1,42 @@
+package com.sweetshop.benchmark;
+
+import com.sweetshop.dto.SweetDto;
+import com.sweetshop.entity.Sweet;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+// Entity to DTO mapping, done once per sweet in every list and search response
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SweetDtoBenchmark {
+    
+    private Sweet sweet;
+    
+    @Setup
+    public void setUp() {
+        LocalDateTime now = LocalDateTime.now();
+        sweet = Sweet.builder()
+                .id(42L)
+                .name("Kaju Katli")
+                .category(Sweet.Category.Dry_Sweets)
+                .price(new BigDecimal("450.00"))
+                .quantity(120)
+                .description("Cashew fudge with silver leaf")
+                .imageUrl("https://example.com/kaju-katli.jpg")
+                .createdAt(now)
+                .updatedAt(now)
+                .build();
+    }
+    
+    @Benchmark
+    public SweetDto fromEntity() {
+        return SweetDto.fromEntity(sweet);
+    }
+}
@@ -0,0 +1,84 @@
+package com.sweetshop.benchmark;
+
+import com.sweetshop.dto.SweetListResponse;
+import com.sweetshop.service.SweetService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// List and search latency at 100k+ sweets with and without the V3 indexes. Each trial also
+// prints the query plans, so the index a query picked can be read next to its timing.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SweetIndexBenchmark {
+    
+    private static final String[] INDEXES = {"idx_sweets_created_at_id", "idx_sweets_category_price", "idx_sweets_price"};
+    
+    // The statements Hibernate runs for the benchmarked calls, with literal parameters
+    private static final Map<String, String> PLANNED_QUERIES = Map.of(
+            "newest page", "SELECT * FROM sweets ORDER BY created_at DESC, id DESC LIMIT 20",
+            "category and price", "SELECT * FROM sweets WHERE category = 'Dry_Sweets' AND price >= 50 AND price <= 150 "
+                    + "ORDER BY created_at DESC, id DESC LIMIT 20",
+            "category and price count", "SELECT COUNT(*) FROM sweets WHERE category = 'Dry_Sweets' AND price >= 50 AND price <= 150",
+            "price range", "SELECT * FROM sweets WHERE price >= 100 AND price <= 101 ORDER BY created_at DESC, id DESC LIMIT 20");
+    
+    @Param({"100000", "250000"})
+    private int catalogSize;
+    
+    @Param({"true", "false"})
+    private boolean indexed;
+    
+    private ConfigurableApplicationContext context;
+    private SweetService sweetService;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start("indexes" + catalogSize + indexed);
+        BenchmarkApplication.seedSweets(context, catalogSize, 100);
+        JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+        if (!indexed) {
+            for (String index : INDEXES) {
+                jdbc.execute("DROP INDEX " + index);
+            }
+        }
+        jdbc.execute("ANALYZE");
+        
+        System.out.printf("%nQuery plans, %d sweets, indexed=%s%n", catalogSize, indexed);
+        PLANNED_QUERIES.forEach((name, sql) ->
+                System.out.printf("  %s: %s%n", name, jdbc.queryForObject("EXPLAIN " + sql, String.class).replaceAll("\\s+", " ")));
+        sweetService = context.getBean(SweetService.class);
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+    
+    @Benchmark
+    public SweetListResponse newestPage() {
+        return sweetService.getAllSweets(1, 20);
+    }
+    
+    @Benchmark
+    public SweetListResponse deepPage() {
+        return sweetService.getAllSweets(200, 20);
+    }
+    
+    @Benchmark
+    public SweetListResponse byCategoryAndPrice() {
+        return sweetService.searchSweets(null, "Dry Sweets", new BigDecimal("50.00"), new BigDecimal("150.00"), 1, 20);
+    }
+    
+    @Benchmark
+    public SweetListResponse byNarrowPriceRange() {
+        return sweetService.searchSweets(null, null, new BigDecimal("100.00"), new BigDecimal("101.00"), 1, 20);
+    }
+}
@@ -0,0 +1,67 @@
+package com.sweetshop.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sweetshop.dto.PaginationDto;
+import com.sweetshop.dto.SweetDto;
+import com.sweetshop.dto.SweetListResponse;
+import com.sweetshop.entity.Sweet;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Writing a list page the way the message converter does, with Spring Boot's mapper defaults
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SweetListSerializationBenchmark {
+    
+    @Param({"10", "100"})
+    private int pageSize;
+    
+    private ObjectMapper objectMapper;
+    private SweetListResponse response;
+    
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        
+        Sweet.Category[] categories = Sweet.Category.values();
+        LocalDateTime now = LocalDateTime.now();
+        List<SweetDto> sweets = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            sweets.add(SweetDto.builder()
+                    .id((long) i)
+                    .name("Sweet " + i)
+                    .category(categories[i % categories.length].getDisplayName())
+                    .price(BigDecimal.valueOf(1000 + i * 25L, 2))
+                    .quantity(100 + i)
+                    .description("Synthetic sweet number " + i)
+                    .imageUrl("https://example.com/sweets/" + i + ".jpg")
+                    .createdAt(now.minusMinutes(i))
+                    .updatedAt(now)
+                    .build());
+        }
+        response = SweetListResponse.builder()
+                .sweets(sweets)
+                .pagination(PaginationDto.builder()
+                        .page(1)
+                        .limit(pageSize)
+                        .total(10_000)
+                        .pages(10_000 / pageSize)
+                        .build())
+                .build();
+    }
+    
+    @Benchmark
+    public byte[] writeListResponse() throws Exception {
+        return objectMapper.writeValueAsBytes(response);
+    }
+}
@@ -0,0 +1,52 @@
+package com.sweetshop.benchmark;
+
+import com.sweetshop.dto.SweetListResponse;
+import com.sweetshop.service.SweetService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+// SweetService.searchSweets end to end (JPA, H2, mapping) as the catalog grows
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SweetSearchBenchmark {
+    
+    @Param({"1000", "10000", "100000"})
+    private int catalogSize;
+    
+    private ConfigurableApplicationContext context;
+    private SweetService sweetService;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start("search" + catalogSize);
+        BenchmarkApplication.seedSweets(context, catalogSize, 100);
+        sweetService = context.getBean(SweetService.class);
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+    
+    @Benchmark
+    public SweetListResponse firstPage() {
+        return sweetService.searchSweets(null, null, null, null, 1, 20);
+    }
+    
+    @Benchmark
+    public SweetListResponse byName() {
+        return sweetService.searchSweets("sweet 12", null, null, null, 1, 20);
+    }
+    
+    @Benchmark
+    public SweetListResponse byCategoryAndPrice() {
+        return sweetService.searchSweets(null, "Dry Sweets", new BigDecimal("50.00"), new BigDecimal("150.00"), 1, 20);
+    }
+}
@@ -0,0 +1,6 @@
+#!/bin/sh
+# Starts the build of `mvn -Pfast-startup package` with its AOT initializers and AppCDS archive.
+# The archive only matches the JDK that created it; with another JDK the JVM starts without it.
+dir="$(dirname "$0")/target"
+exec java -XX:SharedArchiveFile="$dir/sweetshop.jsa" -Dspring.aot.enabled=true $JAVA_OPTS \
+    -jar "$dir/sweetshop-backend-1.0.0.jar" "$@"
@@ -0,0 +1,62 @@
+package com.sweetshop.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Sends batches of new accounts to the bulk endpoint and reports users per second.
+ * Hashing dominates, so the rate should grow with the server's security.hashing.threads.
+ */
+public class BulkProvisionScenario {
+    
+    private final LoadClient client;
+    private final int batchSize;
+    private final int batches;
+    
+    public BulkProvisionScenario(LoadClient client, int batchSize, int batches) {
+        this.client = client;
+        this.batchSize = batchSize;
+        this.batches = batches;
+    }
+    
+    public void run() throws Exception {
+        String runId = UUID.randomUUID().toString().substring(0, 8);
+        HttpResponse<String> registered = client.post("/api/auth/register", null, Map.of(
+                "email", "loadtest-admin-" + runId + "@example.com",
+                "password", "password123",
+                "name", "Load Test Admin",
+                "role", "admin"));
+        if (registered.statusCode() != 201) {
+            throw new IllegalStateException("Registration failed: " + registered.statusCode() + " " + registered.body());
+        }
+        String token = client.json(registered).get("token").asText();
+        
+        System.out.printf("bulk-provision: %d batches of %d users%n", batches, batchSize);
+        for (int batch = 0; batch < batches; batch++) {
+            List<Map<String, String>> users = new ArrayList<>(batchSize);
+            for (int i = 0; i < batchSize; i++) {
+                users.add(Map.of(
+                        "email", "staff-" + runId + "-" + batch + "-" + i + "@example.com",
+                        "password", "password123",
+                        "name", "Staff " + i));
+            }
+            
+            long start = System.nanoTime();
+            HttpResponse<String> response = client.post("/api/admin/users/bulk", token, Map.of("users", users));
+            double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+            
+            if (response.statusCode() != 200) {
+                System.out.printf("batch %d: status %d %s%n", batch, response.statusCode(), response.body());
+                continue;
+            }
+            JsonNode report = client.json(response);
+            System.out.printf("batch %d: created=%d in %.2fs (%.1f users/s)%n",
+                    batch, report.get("created").asInt(), seconds, report.get("created").asInt() / seconds);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.sweetshop.loadtest;
+
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps N requests in flight against one endpoint, for each N in the list, and prints throughput
+ * and latency per level. Clients are async request chains rather than threads, so 10k clients do
+ * not need 10k client threads. Run it once against a server started with VIRTUAL_THREADS_ENABLED=false
+ * and once with true (Java 21 build) to compare; raise the open file limit for the higher levels.
+ */
+public class ConcurrencySweepScenario {
+    
+    private final LoadClient client;
+    private final int[] levels;
+    private final String path;
+    private final int durationSeconds;
+    
+    public ConcurrencySweepScenario(LoadClient client, String levels, String path, int durationSeconds) {
+        this.client = client;
+        this.levels = Arrays.stream(levels.split(",")).map(String::trim).mapToInt(Integer::parseInt).toArray();
+        this.path = path;
+        this.durationSeconds = durationSeconds;
+    }
+    
+    public void run() throws Exception {
+        HttpResponse<String> registered = client.post("/api/auth/register", null, Map.of(
+                "email", "loadtest-" + UUID.randomUUID() + "@example.com",
+                "password", "password123",
+                "name", "Load Test"));
+        if (registered.statusCode() != 201) {
+            throw new IllegalStateException("Registration failed: " + registered.statusCode() + " " + registered.body());
+        }
+        String token = client.json(registered).get("token").asText();
+        
+        System.out.printf("concurrency-sweep: GET %s, %ds per level%n", path, durationSeconds);
+        for (int level : levels) {
+            LatencyRecorder recorder = new LatencyRecorder(level + " clients");
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(durationSeconds);
+            CountDownLatch finished = new CountDownLatch(level);
+            for (int i = 0; i < level; i++) {
+                next(token, deadline, recorder, finished);
+            }
+            finished.await();
+            recorder.print(durationSeconds);
+        }
+    }
+    
+    private void next(String token, long deadline, LatencyRecorder recorder, CountDownLatch finished) {
+        if (System.nanoTime() >= deadline) {
+            finished.countDown();
+            return;
+        }
+        long start = System.nanoTime();
+        client.getAsync(path, token).whenComplete((response, error) -> {
+            recorder.record(error == null ? response.statusCode() : -1, System.nanoTime() - start);
+            next(token, deadline, recorder, finished);
+        });
+    }
+}
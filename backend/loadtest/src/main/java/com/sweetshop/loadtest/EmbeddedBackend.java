@@ -0,0 +1,74 @@
+package com.sweetshop.loadtest;
+
+import com.sweetshop.SweetShopApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs the backend inside the load generator's JVM on a random port, against an in-memory H2
+ * database or a MySQL URL. Rate limiting is off because every simulated client shares a few
+ * accounts; the adaptive concurrency limit stays on. Client and server compete for the same
+ * CPUs, so use an external server (--url) for numbers meant to be compared with production.
+ */
+public class EmbeddedBackend implements AutoCloseable {
+    
+    private final ConfigurableApplicationContext context;
+    
+    private EmbeddedBackend(ConfigurableApplicationContext context) {
+        this.context = context;
+    }
+    
+    public static EmbeddedBackend start(String database, String dbUrl, String dbUser, String dbPassword) {
+        List<String> properties = new ArrayList<>(List.of(
+                "server.port=0",
+                "rate-limit.enabled=false",
+                "logging.level.com.sweetshop=WARN"));
+        switch (database) {
+            case "h2" -> properties.addAll(List.of(
+                    "spring.datasource.url=jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE;LOCK_TIMEOUT=10000",
+                    "spring.datasource.username=sa",
+                    "spring.datasource.password=",
+                    "spring.datasource.driver-class-name=org.h2.Driver",
+                    "spring.flyway.enabled=false",
+                    "spring.jpa.hibernate.ddl-auto=create-drop",
+                    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"));
+            case "mysql" -> {
+                if (dbUrl != null) {
+                    properties.add("spring.datasource.url=" + dbUrl);
+                }
+                if (dbUser != null) {
+                    properties.add("spring.datasource.username=" + dbUser);
+                }
+                if (dbPassword != null) {
+                    properties.add("spring.datasource.password=" + dbPassword);
+                }
+            }
+            default -> throw new IllegalArgumentException("Unknown database for --start: " + database + " (h2 or mysql)");
+        }
+        
+        long start = System.nanoTime();
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(SweetShopApplication.class)
+                .properties(properties.toArray(String[]::new))
+                .logStartupInfo(false)
+                .run();
+        System.out.printf("started backend (%s) in %.1fs%n", database, (System.nanoTime() - start) / 1_000_000_000.0);
+        return new EmbeddedBackend(context);
+    }
+    
+    public String getUrl() {
+        return "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+    }
+    
+    public DataSource getDataSource() {
+        return context.getBean(DataSource.class);
+    }
+    
+    @Override
+    public void close() {
+        context.close();
+    }
+}
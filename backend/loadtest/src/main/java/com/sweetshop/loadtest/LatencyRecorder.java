@@ -0,0 +1,60 @@
+package com.sweetshop.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Wait-free HdrHistogram recording from any thread; 3 significant digits up to one minute
+public class LatencyRecorder {
+    
+    private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(1);
+    
+    private final String name;
+    private final Map<Integer, LongAdder> statusCounts = new ConcurrentHashMap<>();
+    private final Recorder recorder = new Recorder(HIGHEST_TRACKABLE_NANOS, 3);
+    
+    public LatencyRecorder(String name) {
+        this.name = name;
+    }
+    
+    // Status -1 marks a request that failed without a response (timeout, refused connection)
+    public void record(int status, long nanos) {
+        statusCounts.computeIfAbsent(status, key -> new LongAdder()).increment();
+        recorder.recordValue(Math.min(nanos, HIGHEST_TRACKABLE_NANOS));
+    }
+    
+    // Anything other than 2xx counts as an error; the status breakdown tells them apart
+    public void print(double seconds) {
+        Histogram histogram = recorder.getIntervalHistogram();
+        long total = histogram.getTotalCount();
+        
+        Map<Integer, Long> statuses = new TreeMap<>();
+        statusCounts.forEach((status, count) -> statuses.put(status, count.sum()));
+        long errors = statuses.entrySet().stream()
+                .filter(entry -> entry.getKey() < 200 || entry.getKey() >= 300)
+                .mapToLong(Map.Entry::getValue)
+                .sum();
+        
+        System.out.printf("%-24s n=%-8d rps=%-8.1f err=%-6.2f%% p50=%-8s p90=%-8s p99=%-8s p99.9=%-8s max=%-8s status=%s%n",
+                name, total, total / seconds, total > 0 ? errors * 100.0 / total : 0.0,
+                millis(histogram, 50.0), millis(histogram, 90.0), millis(histogram, 99.0), millis(histogram, 99.9),
+                total > 0 ? format(histogram.getMaxValue()) : "-",
+                statuses);
+    }
+    
+    private static String millis(Histogram histogram, double percentile) {
+        if (histogram.getTotalCount() == 0) {
+            return "-";
+        }
+        return format(histogram.getValueAtPercentile(percentile));
+    }
+    
+    private static String format(long nanos) {
+        return String.format("%.1fms", nanos / 1_000_000.0);
+    }
+}
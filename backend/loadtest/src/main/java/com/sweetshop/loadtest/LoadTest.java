@@ -0,0 +1,115 @@
+package com.sweetshop.loadtest;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.util.HashMap;
+import java.util.Map;
+
+public class LoadTest {
+    
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            usage();
+            return;
+        }
+        
+        Map<String, String> options = new HashMap<>();
+        for (int i = 1; i < args.length; i++) {
+            if (!args[i].startsWith("--") || i + 1 >= args.length) {
+                usage();
+                return;
+            }
+            options.put(args[i].substring(2), args[++i]);
+        }
+        
+        EmbeddedBackend backend = options.containsKey("start")
+                ? EmbeddedBackend.start(options.get("start"),
+                        options.get("db-url"), options.get("db-user"), options.get("db-password"))
+                : null;
+        try {
+            String url = backend != null ? backend.getUrl() : options.getOrDefault("url", "http://localhost:8080");
+            run(args[0], options, new LoadClient(url), backend);
+        } finally {
+            if (backend != null) {
+                backend.close();
+            }
+        }
+    }
+    
+    private static void run(String scenario, Map<String, String> options, LoadClient client,
+                            EmbeddedBackend backend) throws Exception {
+        switch (scenario) {
+            case "login-storm" -> new LoginStormScenario(client,
+                    intOption(options, "duration", 20),
+                    intOption(options, "readers", 8),
+                    intOption(options, "logins", 64)).run();
+            case "bulk-provision" -> new BulkProvisionScenario(client,
+                    intOption(options, "batch", 500),
+                    intOption(options, "batches", 3)).run();
+            case "concurrency-sweep" -> new ConcurrencySweepScenario(client,
+                    options.getOrDefault("clients", "1000,2000,5000,10000"),
+                    options.getOrDefault("path", "/api/sweets"),
+                    intOption(options, "duration", 20)).run();
+            case "seed" -> seed(options, backend);
+            case "mixed" -> new MixedWorkloadScenario(client, seed(options, backend),
+                    intOption(options, "duration", 60),
+                    intOption(options, "warmup", 10),
+                    intOption(options, "browsers", 200),
+                    intOption(options, "searchers", 100),
+                    intOption(options, "buyers", 1000),
+                    intOption(options, "logins", 50)).run();
+            case "startup" -> new StartupScenario(
+                    options.getOrDefault("target", "../target"),
+                    options.getOrDefault("path", "/actuator/health"),
+                    Math.max(1, intOption(options, "runs", 5))).run();
+            default -> usage();
+        }
+    }
+    
+    // Seeds through the embedded backend's pool, otherwise connects to --db-url directly
+    private static SyntheticCatalog seed(Map<String, String> options, EmbeddedBackend backend) throws Exception {
+        SyntheticCatalog catalog = new SyntheticCatalog(
+                Math.max(1, intOption(options, "sweets", 100_000)),
+                Math.max(1, intOption(options, "users", 10_000)));
+        if (backend != null) {
+            try (Connection connection = backend.getDataSource().getConnection()) {
+                catalog.seed(connection);
+            }
+        } else if (options.containsKey("db-url")) {
+            try (Connection connection = DriverManager.getConnection(options.get("db-url"),
+                    options.getOrDefault("db-user", "root"), options.getOrDefault("db-password", ""))) {
+                catalog.seed(connection);
+            }
+        } else {
+            throw new IllegalArgumentException("Seeding needs --start h2|mysql or --db-url of the backend's database");
+        }
+        return catalog;
+    }
+    
+    private static int intOption(Map<String, String> options, String name, int defaultValue) {
+        String value = options.get(name);
+        return value != null ? Integer.parseInt(value) : defaultValue;
+    }
+    
+    private static void usage() {
+        System.out.println("Usage: LoadTest <scenario> [--url http://localhost:8080 | --start h2|mysql] [options]");
+        System.out.println();
+        System.out.println("  --start h2|mysql  Run the backend in this JVM on a random port instead of using --url;");
+        System.out.println("                    mysql uses --db-url, --db-user and --db-password when given");
+        System.out.println();
+        System.out.println("Scenarios:");
+        System.out.println("  login-storm  --duration <seconds> --readers <threads> --logins <threads>");
+        System.out.println("               Measures catalog latency alone, then while logins saturate hashing");
+        System.out.println("  bulk-provision  --batch <users> --batches <count>");
+        System.out.println("               Reports users created per second through /api/admin/users/bulk");
+        System.out.println("  concurrency-sweep  --clients 1000,2000,5000,10000 --path /api/sweets --duration <seconds>");
+        System.out.println("               Closed-loop clients per level; run once per server threading mode and compare");
+        System.out.println("  seed  --sweets <count> --users <count> [--db-url <jdbc url> --db-user <user> --db-password <password>]");
+        System.out.println("               Batch-inserts a synthetic catalog and user base; the schema must already exist");
+        System.out.println("  mixed  --sweets <count> --users <count> --duration <seconds> --warmup <seconds>");
+        System.out.println("         --browsers <clients> --searchers <clients> --buyers <clients> --logins <clients>");
+        System.out.println("               Seeds, then runs browse, search, hot-SKU purchase and login clients together");
+        System.out.println("  startup  --target ../target --path /actuator/health --runs <count>");
+        System.out.println("               Time to first 2xx for the default jar and the fast-startup build, in fresh JVMs");
+    }
+}
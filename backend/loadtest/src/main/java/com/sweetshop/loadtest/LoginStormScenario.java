@@ -0,0 +1,94 @@
+package com.sweetshop.loadtest;
+
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs catalog readers on their own, then again while a pool of clients hammers /api/auth/login.
+ * With hashing on its bounded pool the catalog percentiles of both phases should stay close,
+ * and excess logins come back as 503 instead of queueing behind each other.
+ */
+public class LoginStormScenario {
+    
+    private final LoadClient client;
+    private final int durationSeconds;
+    private final int readers;
+    private final int logins;
+    
+    public LoginStormScenario(LoadClient client, int durationSeconds, int readers, int logins) {
+        this.client = client;
+        this.durationSeconds = durationSeconds;
+        this.readers = readers;
+        this.logins = logins;
+    }
+    
+    public void run() throws Exception {
+        String email = "loadtest-" + UUID.randomUUID() + "@example.com";
+        String password = "password123";
+        HttpResponse<String> registered = client.post("/api/auth/register", null,
+                Map.of("email", email, "password", password, "name", "Load Test"));
+        if (registered.statusCode() != 201) {
+            throw new IllegalStateException("Registration failed: " + registered.statusCode() + " " + registered.body());
+        }
+        String token = client.json(registered).get("token").asText();
+        
+        System.out.printf("login-storm: %ds per phase, %d catalog readers, %d login clients%n",
+                durationSeconds, readers, logins);
+        
+        LatencyRecorder baseline = new LatencyRecorder("catalog (baseline)");
+        runPhase(token, baseline, null, email, password);
+        baseline.print(durationSeconds);
+        
+        LatencyRecorder underStorm = new LatencyRecorder("catalog (login storm)");
+        LatencyRecorder loginLatency = new LatencyRecorder("login");
+        runPhase(token, underStorm, loginLatency, email, password);
+        underStorm.print(durationSeconds);
+        loginLatency.print(durationSeconds);
+    }
+    
+    private void runPhase(String token, LatencyRecorder catalog, LatencyRecorder login,
+                          String email, String password) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(durationSeconds);
+        List<Thread> workers = new ArrayList<>();
+        
+        for (int i = 0; i < readers; i++) {
+            workers.add(worker("catalog-" + i, deadline, catalog, () -> client.get("/api/sweets", token)));
+        }
+        if (login != null) {
+            Map<String, String> credentials = Map.of("email", email, "password", password);
+            for (int i = 0; i < logins; i++) {
+                workers.add(worker("login-" + i, deadline, login, () -> client.post("/api/auth/login", null, credentials)));
+            }
+        }
+        
+        for (Thread worker : workers) {
+            worker.join();
+        }
+    }
+    
+    private Thread worker(String name, long deadline, LatencyRecorder recorder, Call call) {
+        Thread thread = new Thread(() -> {
+            while (System.nanoTime() < deadline) {
+                long start = System.nanoTime();
+                int status;
+                try {
+                    status = call.execute().statusCode();
+                } catch (Exception e) {
+                    status = -1;
+                }
+                recorder.record(status, System.nanoTime() - start);
+            }
+        }, name);
+        thread.start();
+        return thread;
+    }
+    
+    @FunctionalInterface
+    private interface Call {
+        HttpResponse<String> execute() throws Exception;
+    }
+}
@@ -0,0 +1,131 @@
+package com.sweetshop.loadtest;
+
+import java.net.URLEncoder;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Runs browse, search, hot-SKU purchase and login clients side by side against a seeded catalog and
+ * prints one report line per workload. Like concurrency-sweep, each client is an async request chain,
+ * so 10k buyers do not need 10k threads. A warm-up phase runs the same mix first and is discarded.
+ */
+public class MixedWorkloadScenario {
+    
+    private static final int BROWSE_PAGES = 50;
+    
+    private final LoadClient client;
+    private final SyntheticCatalog catalog;
+    private final int durationSeconds;
+    private final int warmupSeconds;
+    private final int browsers;
+    private final int searchers;
+    private final int buyers;
+    private final int logins;
+    
+    public MixedWorkloadScenario(LoadClient client, SyntheticCatalog catalog, int durationSeconds, int warmupSeconds,
+                                 int browsers, int searchers, int buyers, int logins) {
+        this.client = client;
+        this.catalog = catalog;
+        this.durationSeconds = durationSeconds;
+        this.warmupSeconds = warmupSeconds;
+        this.browsers = browsers;
+        this.searchers = searchers;
+        this.buyers = buyers;
+        this.logins = logins;
+    }
+    
+    public void run() throws Exception {
+        HttpResponse<String> loggedIn = client.post("/api/auth/login", null,
+                Map.of("email", catalog.userEmail(0), "password", SyntheticCatalog.PASSWORD));
+        if (loggedIn.statusCode() != 200) {
+            throw new IllegalStateException("Login failed: " + loggedIn.statusCode() + " " + loggedIn.body());
+        }
+        String token = client.json(loggedIn).get("token").asText();
+        
+        System.out.printf("mixed: %d browse, %d search, %d purchase, %d login clients; %ds warm-up, %ds measured%n",
+                browsers, searchers, buyers, logins, warmupSeconds, durationSeconds);
+        if (warmupSeconds > 0) {
+            runPhase(token, warmupSeconds);
+        }
+        List<LatencyRecorder> recorders = runPhase(token, durationSeconds);
+        for (LatencyRecorder recorder : recorders) {
+            recorder.print(durationSeconds);
+        }
+    }
+    
+    private List<LatencyRecorder> runPhase(String token, int seconds) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        CountDownLatch finished = new CountDownLatch(browsers + searchers + buyers + logins);
+        String purchasePath = "/api/sweets/" + catalog.getHotSweetId() + "/purchase";
+        Map<String, Integer> oneUnit = Map.of("quantity", 1);
+        
+        LatencyRecorder browse = new LatencyRecorder("browse");
+        LatencyRecorder search = new LatencyRecorder("search");
+        LatencyRecorder purchase = new LatencyRecorder("purchase (hot SKU)");
+        LatencyRecorder login = new LatencyRecorder("login");
+        
+        start(browsers, deadline, browse, finished, () -> client.getAsync(
+                "/api/sweets?limit=20&page=" + (1 + ThreadLocalRandom.current().nextInt(BROWSE_PAGES)), token));
+        start(searchers, deadline, search, finished, () -> client.getAsync(searchPath(), token));
+        start(buyers, deadline, purchase, finished, () -> client.postAsync(purchasePath, token, oneUnit));
+        start(logins, deadline, login, finished, () -> client.postAsync("/api/auth/login", null, Map.of(
+                "email", catalog.userEmail(ThreadLocalRandom.current().nextInt(catalog.getUsers())),
+                "password", SyntheticCatalog.PASSWORD)));
+        
+        finished.await();
+        List<LatencyRecorder> recorders = new ArrayList<>();
+        if (browsers > 0) {
+            recorders.add(browse);
+        }
+        if (searchers > 0) {
+            recorders.add(search);
+        }
+        if (buyers > 0) {
+            recorders.add(purchase);
+        }
+        if (logins > 0) {
+            recorders.add(login);
+        }
+        return recorders;
+    }
+    
+    // Alternates between a category with a price band and a name fragment
+    private static String searchPath() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (random.nextBoolean()) {
+            String category = SyntheticCatalog.CATEGORIES[random.nextInt(SyntheticCatalog.CATEGORIES.length)].replace('_', ' ');
+            int minPrice = 10 + random.nextInt(400);
+            return "/api/sweets/search?limit=20&category=" + URLEncoder.encode(category, StandardCharsets.UTF_8)
+                    + "&minPrice=" + minPrice + "&maxPrice=" + (minPrice + 100);
+        }
+        return "/api/sweets/search?limit=20&name=" + URLEncoder.encode("Sweet " + random.nextInt(1000), StandardCharsets.UTF_8);
+    }
+    
+    private static void start(int clients, long deadline, LatencyRecorder recorder, CountDownLatch finished,
+                              Supplier<CompletableFuture<HttpResponse<String>>> request) {
+        for (int i = 0; i < clients; i++) {
+            next(deadline, recorder, finished, request);
+        }
+    }
+    
+    private static void next(long deadline, LatencyRecorder recorder, CountDownLatch finished,
+                             Supplier<CompletableFuture<HttpResponse<String>>> request) {
+        if (System.nanoTime() >= deadline) {
+            finished.countDown();
+            return;
+        }
+        long start = System.nanoTime();
+        request.get().whenComplete((response, error) -> {
+            recorder.record(error == null ? response.statusCode() : -1, System.nanoTime() - start);
+            next(deadline, recorder, finished, request);
+        });
+    }
+}
@@ -0,0 +1,120 @@
+package com.sweetshop.loadtest;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Starts the backend as a separate JVM, once per run and mode, and measures the time from process
+ * launch to the first 2xx answer on a path. "default" runs the executable jar as the Dockerfile does;
+ * "optimized" runs the fast-startup build (AOT initializers and the AppCDS archive) as
+ * fast-startup.sh does. Both need `mvn -Pfast-startup package` in the backend first. The backend
+ * processes inherit this JVM's environment, so DB_URL and friends select their database.
+ */
+public class StartupScenario {
+    
+    private static final long TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(180);
+    
+    private final Path target;
+    private final String path;
+    private final int runs;
+    private final HttpClient http = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofMillis(500))
+            .build();
+    
+    public StartupScenario(String target, String path, int runs) {
+        this.target = Path.of(target).toAbsolutePath().normalize();
+        this.path = path;
+        this.runs = runs;
+    }
+    
+    public void run() throws Exception {
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        List<String> defaultMode = List.of(java,
+                "-jar", target.resolve("sweetshop-backend-1.0.0-exec.jar").toString());
+        List<String> optimizedMode = List.of(java,
+                "-XX:SharedArchiveFile=" + target.resolve("sweetshop.jsa"),
+                "-Dspring.aot.enabled=true",
+                "-jar", target.resolve("sweetshop-backend-1.0.0.jar").toString());
+        
+        System.out.printf("startup: time to first 2xx on GET %s, %d runs per mode (%s)%n", path, runs, target);
+        long[] defaultTimes = measure("default", defaultMode);
+        long[] optimizedTimes = measure("optimized", optimizedMode);
+        System.out.printf("optimized median is %.2fx faster%n",
+                (double) median(defaultTimes) / median(optimizedTimes));
+    }
+    
+    private long[] measure(String mode, List<String> command) throws Exception {
+        long[] times = new long[runs];
+        File log = target.resolve("startup-" + mode + ".log").toFile();
+        for (int i = 0; i < runs; i++) {
+            times[i] = startOnce(command, log);
+        }
+        Arrays.sort(times);
+        System.out.printf("%-10s min %6.2fs  median %6.2fs  max %6.2fs  (log: %s)%n", mode,
+                seconds(times[0]), seconds(median(times)), seconds(times[runs - 1]), log);
+        return times;
+    }
+    
+    private long startOnce(List<String> command, File log) throws Exception {
+        int port = freePort();
+        List<String> withPort = new ArrayList<>(command);
+        withPort.add("--server.port=" + port);
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .timeout(Duration.ofSeconds(5))
+                .GET()
+                .build();
+        
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(withPort)
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.appendTo(log))
+                .start();
+        try {
+            while (System.nanoTime() - start < TIMEOUT_NANOS) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("Backend exited with " + process.exitValue() + ", see " + log);
+                }
+                try {
+                    HttpResponse<Void> response = http.send(request, HttpResponse.BodyHandlers.discarding());
+                    if (response.statusCode() / 100 == 2) {
+                        return System.nanoTime() - start;
+                    }
+                } catch (IOException e) {
+                    // Not listening yet
+                }
+                Thread.sleep(10);
+            }
+            throw new IllegalStateException("No 2xx on " + path + " within 180s, see " + log);
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+        }
+    }
+    
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+    
+    private static long median(long[] sorted) {
+        return sorted[sorted.length / 2];
+    }
+    
+    private static double seconds(long nanos) {
+        return nanos / 1_000_000_000.0;
+    }
+}
@@ -0,0 +1,142 @@
+package com.sweetshop.loadtest;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Seeds sweets and users straight into the backend's tables with JDBC batches, committing per batch.
+ * The tables must already exist, i.e. the backend has started against the database once. Names and
+ * emails carry a run id so repeated seeding of the same database does not collide. Every seeded user
+ * shares one password, hashed once up front. The first sweet is the hot SKU and gets effectively
+ * unlimited stock so purchase runs never sell out.
+ */
+public class SyntheticCatalog {
+    
+    public static final String PASSWORD = "password123";
+    
+    private static final String INSERT_SWEET =
+            "INSERT INTO sweets (name, category, price, quantity, description, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_USER =
+            "INSERT INTO users (email, password, name, role, token_version, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final int BATCH_SIZE = 1000;
+    private static final int HOT_SKU_STOCK = 1_000_000_000;
+    
+    // Sweet.Category constant names, as stored in the category column
+    static final String[] CATEGORIES = {
+            "Chocolate", "Candy", "Cake", "Cookie", "Pastry", "Ice_Cream", "Ladoo", "Barfi", "Halwa", "Rasgulla",
+            "Gulab_Jamun", "Kheer", "Peda", "Jalebi", "Bengali_Sweets", "Dry_Sweets", "Milk_Sweets", "Namkeen",
+            "Beverages", "Bakery", "Snacks", "Other"
+    };
+    
+    private final String runId = UUID.randomUUID().toString().substring(0, 8);
+    private final int sweets;
+    private final int users;
+    private long hotSweetId;
+    
+    public SyntheticCatalog(int sweets, int users) {
+        this.sweets = sweets;
+        this.users = users;
+    }
+    
+    public void seed(Connection connection) throws SQLException {
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try {
+            long start = System.nanoTime();
+            seedSweets(connection);
+            report("sweets", sweets, start);
+            
+            start = System.nanoTime();
+            seedUsers(connection);
+            report("users", users, start);
+            
+            hotSweetId = findSweetId(connection, sweetName(0));
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+    
+    public long getHotSweetId() {
+        return hotSweetId;
+    }
+    
+    public int getUsers() {
+        return users;
+    }
+    
+    public String userEmail(int index) {
+        return "lt-" + runId + "-" + index + "@example.com";
+    }
+    
+    // Price ranges spread over 10.00-509.99; the stride keeps neighbouring sweets apart
+    private void seedSweets(Connection connection) throws SQLException {
+        LocalDateTime first = LocalDateTime.now().minusSeconds(sweets);
+        try (PreparedStatement insert = connection.prepareStatement(INSERT_SWEET)) {
+            for (int i = 0; i < sweets; i++) {
+                Timestamp createdAt = Timestamp.valueOf(first.plusSeconds(i));
+                insert.setString(1, sweetName(i));
+                insert.setString(2, CATEGORIES[i % CATEGORIES.length]);
+                insert.setBigDecimal(3, BigDecimal.valueOf(1000 + (i * 7919L) % 50_000, 2));
+                insert.setInt(4, i == 0 ? HOT_SKU_STOCK : 1000);
+                insert.setString(5, "Synthetic sweet number " + i);
+                insert.setTimestamp(6, createdAt);
+                insert.setTimestamp(7, createdAt);
+                insert.addBatch();
+                if ((i + 1) % BATCH_SIZE == 0 || i == sweets - 1) {
+                    insert.executeBatch();
+                    connection.commit();
+                }
+            }
+        }
+    }
+    
+    private void seedUsers(Connection connection) throws SQLException {
+        String hash = new BCryptPasswordEncoder().encode(PASSWORD);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        try (PreparedStatement insert = connection.prepareStatement(INSERT_USER)) {
+            for (int i = 0; i < users; i++) {
+                insert.setString(1, userEmail(i));
+                insert.setString(2, hash);
+                insert.setString(3, "Load Test " + i);
+                insert.setString(4, "USER");
+                insert.setInt(5, 0);
+                insert.setTimestamp(6, now);
+                insert.setTimestamp(7, now);
+                insert.addBatch();
+                if ((i + 1) % BATCH_SIZE == 0 || i == users - 1) {
+                    insert.executeBatch();
+                    connection.commit();
+                }
+            }
+        }
+    }
+    
+    private String sweetName(int index) {
+        return "LT " + runId + " Sweet " + index;
+    }
+    
+    private static long findSweetId(Connection connection, String name) throws SQLException {
+        try (PreparedStatement select = connection.prepareStatement("SELECT id FROM sweets WHERE name = ?")) {
+            select.setString(1, name);
+            try (ResultSet result = select.executeQuery()) {
+                if (!result.next()) {
+                    throw new IllegalStateException("Seeded sweet not found: " + name);
+                }
+                return result.getLong(1);
+            }
+        }
+    }
+    
+    private static void report(String what, int count, long start) {
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        System.out.printf("seeded %d %s in %.1fs (%.0f rows/s)%n", count, what, seconds, count / Math.max(seconds, 1e-9));
+    }
+}
@@ -0,0 +1,67 @@
+package com.sweetshop.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.util.Map;
+
+// Holds a limiter permit from preHandle until the response is complete, including async dispatches
+@Component
+@RequiredArgsConstructor
+public class ConcurrencyLimitInterceptor implements AsyncHandlerInterceptor {
+    
+    private static final String PERMIT_ATTRIBUTE = ConcurrencyLimitInterceptor.class.getName() + ".START";
+    
+    private final ConcurrencyLimiter concurrencyLimiter;
+    private final ObjectMapper objectMapper;
+    
+    @Override
+    public boolean preHandle(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+                             @NonNull Object handler) throws Exception {
+        if (request.getDispatcherType() == DispatcherType.ASYNC) {
+            return true;
+        }
+        
+        if (!concurrencyLimiter.tryAcquire(priority(request.getMethod(), request.getRequestURI()))) {
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            objectMapper.writeValue(response.getWriter(), Map.of("message", "Server is busy, please retry shortly"));
+            return false;
+        }
+        request.setAttribute(PERMIT_ATTRIBUTE, System.nanoTime());
+        return true;
+    }
+    
+    @Override
+    public void afterCompletion(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+                                @NonNull Object handler, Exception ex) {
+        Object start = request.getAttribute(PERMIT_ATTRIBUTE);
+        if (start != null) {
+            request.removeAttribute(PERMIT_ATTRIBUTE);
+            concurrencyLimiter.release(System.nanoTime() - (Long) start, ex != null || response.getStatus() >= 500);
+        }
+    }
+    
+    static ConcurrencyLimiter.Priority priority(String method, String path) {
+        if (path.startsWith("/api/auth/")) {
+            return "GET".equals(method) ? ConcurrencyLimiter.Priority.DETAIL_READ : ConcurrencyLimiter.Priority.LOGIN;
+        }
+        if (!"GET".equals(method)) {
+            return path.endsWith("/purchase") ? ConcurrencyLimiter.Priority.PURCHASE : ConcurrencyLimiter.Priority.ADMIN_WRITE;
+        }
+        String rest = path.replaceFirst("^/api/(async/)?sweets/?", "");
+        return rest.isEmpty() || rest.startsWith("search")
+                ? ConcurrencyLimiter.Priority.LIST_SEARCH
+                : ConcurrencyLimiter.Priority.DETAIL_READ;
+    }
+}
@@ -0,0 +1,122 @@
+package com.sweetshop.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleUnaryOperator;
+
+// AIMD limit on requests in flight: grows by one per limit's worth of fast responses,
+// shrinks by the backoff ratio when responses get slow or fail
+@Component
+public class ConcurrencyLimiter {
+    
+    // Each priority may only fill its share of the limit, so the lowest ones are refused first
+    public enum Priority {
+        PURCHASE(1.0),
+        ADMIN_WRITE(0.9),
+        LOGIN(0.8),
+        DETAIL_READ(0.7),
+        LIST_SEARCH(0.5);
+        
+        private final double share;
+        
+        Priority(double share) {
+            this.share = share;
+        }
+    }
+    
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyThreshold;
+    private final double backoffRatio;
+    
+    private final AtomicLong limitBits;
+    private final AtomicLong lastDecrease;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Map<Priority, LongAdder> accepted = new EnumMap<>(Priority.class);
+    private final Map<Priority, LongAdder> shed = new EnumMap<>(Priority.class);
+    
+    public ConcurrencyLimiter(@Value("${concurrency-limit.initial-limit:100}") int initialLimit,
+                              @Value("${concurrency-limit.min-limit:10}") int minLimit,
+                              @Value("${concurrency-limit.max-limit:1000}") int maxLimit,
+                              @Value("${concurrency-limit.latency-threshold-ms:250}") long latencyThresholdMs,
+                              @Value("${concurrency-limit.backoff-ratio:0.9}") double backoffRatio) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyThreshold = TimeUnit.MILLISECONDS.toNanos(latencyThresholdMs);
+        this.backoffRatio = backoffRatio;
+        this.limitBits = new AtomicLong(Double.doubleToLongBits(initialLimit));
+        this.lastDecrease = new AtomicLong(System.nanoTime() - latencyThreshold);
+        for (Priority priority : Priority.values()) {
+            accepted.put(priority, new LongAdder());
+            shed.put(priority, new LongAdder());
+        }
+    }
+    
+    public boolean tryAcquire(Priority priority) {
+        int allowed = (int) Math.max(1, Math.floor(limit() * priority.share));
+        while (true) {
+            int current = inFlight.get();
+            if (current >= allowed) {
+                shed.get(priority).increment();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                accepted.get(priority).increment();
+                return true;
+            }
+        }
+    }
+    
+    public void release(long latencyNanos, boolean failed) {
+        int concurrent = inFlight.getAndDecrement();
+        long now = System.nanoTime();
+        
+        if (failed || latencyNanos > latencyThreshold) {
+            // One decrease per threshold window, otherwise a single slow burst collapses the limit
+            long last = lastDecrease.get();
+            if (now - last >= latencyThreshold && lastDecrease.compareAndSet(last, now)) {
+                update(limit -> Math.max(minLimit, limit * backoffRatio));
+            }
+        } else {
+            // Only grow while the limit is actually being used
+            update(limit -> concurrent * 2 >= limit ? Math.min(maxLimit, limit + 1 / limit) : limit);
+        }
+    }
+    
+    public int getLimit() {
+        return (int) limit();
+    }
+    
+    public int getInFlight() {
+        return inFlight.get();
+    }
+    
+    public long getAccepted(Priority priority) {
+        return accepted.get(priority).sum();
+    }
+    
+    public long getShed(Priority priority) {
+        return shed.get(priority).sum();
+    }
+    
+    private double limit() {
+        return Double.longBitsToDouble(limitBits.get());
+    }
+    
+    private void update(DoubleUnaryOperator function) {
+        while (true) {
+            long current = limitBits.get();
+            double next = function.applyAsDouble(Double.longBitsToDouble(current));
+            if (Double.doubleToLongBits(next) == current || limitBits.compareAndSet(current, Double.doubleToLongBits(next))) {
+                return;
+            }
+        }
+    }
+}
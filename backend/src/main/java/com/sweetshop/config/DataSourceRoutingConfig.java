@@ -0,0 +1,89 @@
+package com.sweetshop.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+// Replaces the auto-configured DataSource with a primary pool plus one pool per replica.
+// Replica pools copy the primary's Hikari settings and only override the connection details.
+// The primary is a bean and gets pool metrics from Spring Boot; replica pools register their own.
+@Configuration
+@ConditionalOnProperty(name = "datasource.routing.enabled", havingValue = "true")
+public class DataSourceRoutingConfig {
+    
+    private final List<HikariDataSource> replicas = new ArrayList<>();
+    
+    @Value("${datasource.routing.replica-urls:}")
+    private String replicaUrls;
+    
+    @Value("${datasource.routing.replica-username:${spring.datasource.username:}}")
+    private String replicaUsername;
+    
+    @Value("${datasource.routing.replica-password:${spring.datasource.password:}}")
+    private String replicaPassword;
+    
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+    
+    @Bean
+    public ReadYourWritesTracker readYourWritesTracker(@Value("${datasource.routing.pin-window-ms:2000}") long window) {
+        return new ReadYourWritesTracker(window);
+    }
+    
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, ReadYourWritesTracker readYourWritesTracker,
+                                 ObjectProvider<MeterRegistry> meterRegistry) {
+        for (String url : StringUtils.commaDelimitedListToStringArray(replicaUrls)) {
+            if (!url.isBlank()) {
+                HikariDataSource replica = replica(primaryDataSource, url.trim(), replicas.size());
+                if (replica.getMetricsTrackerFactory() == null && replica.getMetricRegistry() == null) {
+                    meterRegistry.ifAvailable(registry ->
+                            replica.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+                }
+                replicas.add(replica);
+            }
+        }
+        
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(primaryDataSource, replicas,
+                readYourWritesTracker);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+    
+    @PreDestroy
+    public void closeReplicas() {
+        replicas.forEach(HikariDataSource::close);
+    }
+    
+    private HikariDataSource replica(HikariDataSource primary, String url, int index) {
+        HikariDataSource replica = new HikariDataSource();
+        primary.copyStateTo(replica);
+        replica.setJdbcUrl(url);
+        replica.setUsername(replicaUsername);
+        replica.setPassword(replicaPassword);
+        replica.setPoolName("replica-" + index);
+        replica.setReadOnly(true);
+        return replica;
+    }
+}
@@ -0,0 +1,57 @@
+package com.sweetshop.config;
+
+import com.sweetshop.security.JwtUtil;
+import com.sweetshop.security.TokenVersionRegistry;
+import com.sweetshop.service.ChangeFeedPoller;
+import com.sweetshop.service.CustomUserDetailsService;
+import com.sweetshop.service.SweetService;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.TimeUnit;
+
+// Gauges over state that /api/admin/diagnostics only shows on request, so it can be graphed and alerted on
+@Configuration
+public class MetricsConfig {
+    
+    @Bean
+    public MeterBinder changeFeedMetrics(ChangeFeedPoller changeFeedPoller) {
+        return registry -> {
+            TimeGauge.builder("sweetshop.change.feed.lag", changeFeedPoller, TimeUnit.MILLISECONDS, ChangeFeedPoller::getLagMillis)
+                    .description("Time between a remote commit and this instance applying it")
+                    .register(registry);
+            Gauge.builder("sweetshop.change.feed.position", changeFeedPoller, ChangeFeedPoller::getPosition)
+                    .description("Sequence number up to which every change has been applied")
+                    .register(registry);
+            FunctionCounter.builder("sweetshop.change.feed.applied", changeFeedPoller, ChangeFeedPoller::getAppliedCount)
+                    .register(registry);
+        };
+    }
+    
+    @Bean
+    public MeterBinder cacheMetrics(SweetService sweetService, CustomUserDetailsService userDetailsService, JwtUtil jwtUtil,
+                                   TokenVersionRegistry tokenVersionRegistry) {
+        return registry -> {
+            // Catalog reads that ran a query versus those that joined one already in flight
+            FunctionCounter.builder("sweetshop.catalog.reads", sweetService, SweetService::getExecutedReadCount)
+                    .tag("result", "executed")
+                    .register(registry);
+            FunctionCounter.builder("sweetshop.catalog.reads", sweetService, SweetService::getCoalescedReadCount)
+                    .tag("result", "coalesced")
+                    .register(registry);
+            Gauge.builder("sweetshop.cache.size", userDetailsService, CustomUserDetailsService::getCachedUserCount)
+                    .tag("cache", "users")
+                    .register(registry);
+            Gauge.builder("sweetshop.cache.size", jwtUtil, JwtUtil::getCachedTokenCount)
+                    .tag("cache", "tokens")
+                    .register(registry);
+            Gauge.builder("sweetshop.cache.size", tokenVersionRegistry, TokenVersionRegistry::getCachedUserCount)
+                    .tag("cache", "token_versions")
+                    .register(registry);
+        };
+    }
+}
@@ -0,0 +1,89 @@
+package com.sweetshop.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+// Runs first so the count includes the security chain's user lookup as well as the handler
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class QueryBudgetFilter extends OncePerRequestFilter {
+    
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final List<Budget> budgets = new ArrayList<>();
+    private final boolean warnEnabled;
+    private final int defaultBudget;
+    
+    // Routes are "METHOD /ant/pattern=statements", comma separated; the first match wins
+    public QueryBudgetFilter(@Value("${query-budget.warn-enabled:false}") boolean warnEnabled,
+                             @Value("${query-budget.default:10}") int defaultBudget,
+                             @Value("${query-budget.routes:}") String routes) {
+        this.warnEnabled = warnEnabled;
+        this.defaultBudget = defaultBudget;
+        for (String route : StringUtils.commaDelimitedListToStringArray(routes)) {
+            if (route.isBlank()) {
+                continue;
+            }
+            String[] routeAndLimit = route.trim().split("=");
+            String[] methodAndPattern = routeAndLimit[0].trim().split("\\s+");
+            if (routeAndLimit.length != 2 || methodAndPattern.length != 2) {
+                throw new IllegalArgumentException("Invalid query-budget.routes entry: " + route);
+            }
+            budgets.add(new Budget(methodAndPattern[0], methodAndPattern[1], Integer.parseInt(routeAndLimit[1].trim())));
+        }
+    }
+    
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !warnEnabled;
+    }
+    
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+        QueryCounter.QueryStats before = QueryCounter.snapshot();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            QueryCounter.QueryStats used = QueryCounter.snapshot().minus(before);
+            int budget = budgetFor(request.getMethod(), request.getRequestURI());
+            if (used.total() > budget) {
+                log.warn("Query budget exceeded: {} {} ran {} statements (budget {}): {} selects, {} inserts, "
+                                + "{} updates, {} deletes, {} other in {} ms",
+                        request.getMethod(), request.getRequestURI(), used.total(), budget,
+                        used.selects(), used.inserts(), used.updates(), used.deletes(), used.other(),
+                        used.nanos() / 1_000_000);
+            }
+        }
+    }
+    
+    int budgetFor(String method, String path) {
+        for (Budget budget : budgets) {
+            if (budget.method().equalsIgnoreCase(method) && pathMatcher.match(budget.pattern(), path)) {
+                return budget.statements();
+            }
+        }
+        return defaultBudget;
+    }
+    
+    private record Budget(String method, String pattern, int statements) {
+    }
+}
@@ -0,0 +1,66 @@
+package com.sweetshop.config;
+
+import java.util.Locale;
+
+// Counts JDBC statements per thread; a request diffs a snapshot taken when it starts.
+// Work handed to other threads (async reads, schedulers) is counted on those threads.
+public final class QueryCounter {
+    
+    private static final ThreadLocal<Counts> COUNTS = ThreadLocal.withInitial(Counts::new);
+    
+    private QueryCounter() {
+    }
+    
+    public static QueryStats snapshot() {
+        Counts counts = COUNTS.get();
+        return new QueryStats(counts.selects, counts.inserts, counts.updates, counts.deletes, counts.other, counts.nanos);
+    }
+    
+    static void record(String sql, long nanos) {
+        Counts counts = COUNTS.get();
+        switch (statementType(sql)) {
+            case "select", "with" -> counts.selects++;
+            case "insert" -> counts.inserts++;
+            case "update" -> counts.updates++;
+            case "delete" -> counts.deletes++;
+            default -> counts.other++;
+        }
+        counts.nanos += nanos;
+    }
+    
+    private static String statementType(String sql) {
+        if (sql == null) {
+            return "";
+        }
+        int start = 0;
+        while (start < sql.length() && (Character.isWhitespace(sql.charAt(start)) || sql.charAt(start) == '(')) {
+            start++;
+        }
+        int end = start;
+        while (end < sql.length() && Character.isLetter(sql.charAt(end))) {
+            end++;
+        }
+        return sql.substring(start, end).toLowerCase(Locale.ROOT);
+    }
+    
+    public record QueryStats(long selects, long inserts, long updates, long deletes, long other, long nanos) {
+        
+        public long total() {
+            return selects + inserts + updates + deletes + other;
+        }
+        
+        public QueryStats minus(QueryStats earlier) {
+            return new QueryStats(selects - earlier.selects, inserts - earlier.inserts, updates - earlier.updates,
+                    deletes - earlier.deletes, other - earlier.other, nanos - earlier.nanos);
+        }
+    }
+    
+    private static final class Counts {
+        private long selects;
+        private long inserts;
+        private long updates;
+        private long deletes;
+        private long other;
+        private long nanos;
+    }
+}
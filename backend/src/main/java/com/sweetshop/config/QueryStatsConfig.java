@@ -0,0 +1,29 @@
+package com.sweetshop.config;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+// Wraps the main DataSource (routing or not) so every statement is counted; inventory shard pools are not wrapped.
+// Off unless asked for, or needed by the query budget warnings or request timing.
+@Configuration
+@ConditionalOnExpression("${query-stats.enabled:false} or ${query-budget.warn-enabled:false} or ${request-timing.enabled:false}")
+public class QueryStatsConfig {
+    
+    @Bean
+    public static BeanPostProcessor queryCountingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if ("dataSource".equals(beanName) && bean instanceof DataSource dataSource
+                        && !(bean instanceof QueryCountingDataSource)) {
+                    return new QueryCountingDataSource(dataSource);
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,62 @@
+package com.sweetshop.config;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Users who committed a write recently; their read-only work stays on the primary until replicas catch up
+public class ReadYourWritesTracker {
+    
+    private final Map<String, Long> pinnedUntil = new ConcurrentHashMap<>();
+    private final long window;
+    
+    public ReadYourWritesTracker(long window) {
+        this.window = window;
+    }
+    
+    public void pinCurrentUser() {
+        String user = currentUser();
+        if (user != null && window > 0) {
+            pinnedUntil.put(user, System.currentTimeMillis() + window);
+        }
+    }
+    
+    public boolean isCurrentUserPinned() {
+        String user = currentUser();
+        if (user == null) {
+            return false;
+        }
+        Long until = pinnedUntil.get(user);
+        if (until == null) {
+            return false;
+        }
+        if (until <= System.currentTimeMillis()) {
+            pinnedUntil.remove(user, until);
+            return false;
+        }
+        return true;
+    }
+    
+    public int getPinnedCount() {
+        return pinnedUntil.size();
+    }
+    
+    @Scheduled(fixedDelayString = "${datasource.routing.eviction-interval-ms:60000}")
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        pinnedUntil.values().removeIf(until -> until <= now);
+    }
+    
+    private static String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return authentication.getName();
+    }
+}
@@ -0,0 +1,105 @@
+package com.sweetshop.config;
+
+import java.util.Locale;
+
+// Phase times of the request running on this thread; all calls are no-ops when timing is off.
+// Phases: auth (token checks), user (details lookup), service (handler, including its SQL),
+// db (statement count and time), ser (response serialization).
+public final class RequestTiming {
+    
+    private static final ThreadLocal<RequestTiming> CURRENT = new ThreadLocal<>();
+    
+    private final long start = System.nanoTime();
+    private final QueryCounter.QueryStats queriesAtStart = QueryCounter.snapshot();
+    private long authNanos;
+    private long userNanos;
+    private long serviceStart;
+    private long serviceEnd;
+    private long serializationStart;
+    private long serializationEnd;
+    
+    private RequestTiming() {
+    }
+    
+    static RequestTiming begin() {
+        RequestTiming timing = new RequestTiming();
+        CURRENT.set(timing);
+        return timing;
+    }
+    
+    static void end() {
+        CURRENT.remove();
+    }
+    
+    public static void addAuth(long nanos) {
+        RequestTiming timing = CURRENT.get();
+        if (timing != null) {
+            timing.authNanos += nanos;
+        }
+    }
+    
+    public static void addUserLoad(long nanos) {
+        RequestTiming timing = CURRENT.get();
+        if (timing != null) {
+            timing.userNanos += nanos;
+        }
+    }
+    
+    static void serviceStarted() {
+        RequestTiming timing = CURRENT.get();
+        if (timing != null && timing.serviceStart == 0) {
+            timing.serviceStart = System.nanoTime();
+        }
+    }
+    
+    // The handler has returned once its body is handed to a message converter
+    static void serializationStarted() {
+        RequestTiming timing = CURRENT.get();
+        if (timing != null && timing.serializationStart == 0) {
+            timing.serializationStart = System.nanoTime();
+            timing.endService(timing.serializationStart);
+        }
+    }
+    
+    static void serviceEnded() {
+        RequestTiming timing = CURRENT.get();
+        if (timing != null) {
+            timing.endService(System.nanoTime());
+        }
+    }
+    
+    void serializationEnded() {
+        if (serializationStart != 0 && serializationEnd == 0) {
+            serializationEnd = System.nanoTime();
+        }
+    }
+    
+    private void endService(long now) {
+        if (serviceStart != 0 && serviceEnd == 0) {
+            serviceEnd = now;
+        }
+    }
+    
+    Snapshot snapshot() {
+        long now = System.nanoTime();
+        QueryCounter.QueryStats queries = QueryCounter.snapshot().minus(queriesAtStart);
+        long service = serviceStart == 0 ? 0 : (serviceEnd != 0 ? serviceEnd : now) - serviceStart;
+        long serialization = serializationStart == 0 ? 0 : (serializationEnd != 0 ? serializationEnd : now) - serializationStart;
+        return new Snapshot(authNanos, userNanos, service, queries.total(), queries.nanos(), serialization, now - start);
+    }
+    
+    record Snapshot(long authNanos, long userNanos, long serviceNanos, long queries, long dbNanos,
+                    long serializationNanos, long totalNanos) {
+        
+        String serverTiming() {
+            return String.format(Locale.ROOT,
+                    "auth;dur=%.2f, user;dur=%.2f, service;dur=%.2f, db;desc=\"%d queries\";dur=%.2f, ser;dur=%.2f, total;dur=%.2f",
+                    millis(authNanos), millis(userNanos), millis(serviceNanos), queries, millis(dbNanos),
+                    millis(serializationNanos), millis(totalNanos));
+        }
+        
+        static double millis(long nanos) {
+            return nanos / 1_000_000.0;
+        }
+    }
+}
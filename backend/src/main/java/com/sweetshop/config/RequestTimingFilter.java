@@ -0,0 +1,171 @@
+package com.sweetshop.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+// Times each request by phase (see RequestTiming), adds a Server-Timing header and logs slow requests.
+// The header must go out before the response commits, so it is set when the body is first written
+// and again, with the finished serialization time, when the converter flushes.
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class RequestTimingFilter extends OncePerRequestFilter {
+    
+    static final String HEADER = "Server-Timing";
+    
+    private static final Logger slowRequests = LoggerFactory.getLogger("sweetshop.slow-requests");
+    
+    private final boolean enabled;
+    private final boolean serverTimingHeader;
+    private final long slowThresholdNanos;
+    
+    public RequestTimingFilter(@Value("${request-timing.enabled:false}") boolean enabled,
+                               @Value("${request-timing.server-timing-header:true}") boolean serverTimingHeader,
+                               @Value("${request-timing.slow-threshold-ms:1000}") long slowThresholdMs) {
+        this.enabled = enabled;
+        this.serverTimingHeader = serverTimingHeader;
+        this.slowThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowThresholdMs);
+    }
+    
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !enabled;
+    }
+    
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+        RequestTiming timing = RequestTiming.begin();
+        try {
+            filterChain.doFilter(request, serverTimingHeader ? new TimedResponse(response, timing) : response);
+        } finally {
+            timing.serializationEnded();
+            RequestTiming.Snapshot snapshot = timing.snapshot();
+            RequestTiming.end();
+            if (serverTimingHeader && !response.isCommitted()) {
+                response.setHeader(HEADER, snapshot.serverTiming());
+            }
+            if (snapshot.totalNanos() >= slowThresholdNanos) {
+                logSlowRequest(request, response, snapshot);
+            }
+        }
+    }
+    
+    // One key=value line per request so log pipelines can parse it without a pattern
+    private static void logSlowRequest(HttpServletRequest request, HttpServletResponse response,
+                                       RequestTiming.Snapshot snapshot) {
+        slowRequests.warn(String.format(Locale.ROOT,
+                "slow_request method=%s path=%s status=%d total_ms=%.1f auth_ms=%.1f user_ms=%.1f service_ms=%.1f "
+                        + "db_queries=%d db_ms=%.1f ser_ms=%.1f",
+                request.getMethod(), request.getRequestURI(), response.getStatus(),
+                RequestTiming.Snapshot.millis(snapshot.totalNanos()), RequestTiming.Snapshot.millis(snapshot.authNanos()),
+                RequestTiming.Snapshot.millis(snapshot.userNanos()), RequestTiming.Snapshot.millis(snapshot.serviceNanos()),
+                snapshot.queries(), RequestTiming.Snapshot.millis(snapshot.dbNanos()),
+                RequestTiming.Snapshot.millis(snapshot.serializationNanos())));
+    }
+    
+    private static final class TimedResponse extends HttpServletResponseWrapper {
+        
+        private final RequestTiming timing;
+        private ServletOutputStream outputStream;
+        
+        private TimedResponse(HttpServletResponse response, RequestTiming timing) {
+            super(response);
+            this.timing = timing;
+        }
+        
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (outputStream == null) {
+                outputStream = new TimedOutputStream(super.getOutputStream());
+            }
+            return outputStream;
+        }
+        
+        @Override
+        public void flushBuffer() throws IOException {
+            writeHeader(true);
+            super.flushBuffer();
+        }
+        
+        private void writeHeader(boolean finished) {
+            if (!isCommitted()) {
+                if (finished) {
+                    timing.serializationEnded();
+                }
+                setHeader(HEADER, timing.snapshot().serverTiming());
+            }
+        }
+        
+        private final class TimedOutputStream extends ServletOutputStream {
+            
+            private final ServletOutputStream delegate;
+            private boolean written;
+            
+            private TimedOutputStream(ServletOutputStream delegate) {
+                this.delegate = delegate;
+            }
+            
+            // Covers bodies larger than the container buffer, which commit before the final flush
+            private void beforeWrite() {
+                if (!written) {
+                    written = true;
+                    writeHeader(false);
+                }
+            }
+            
+            @Override
+            public void write(int b) throws IOException {
+                beforeWrite();
+                delegate.write(b);
+            }
+            
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                beforeWrite();
+                delegate.write(b, off, len);
+            }
+            
+            @Override
+            public void flush() throws IOException {
+                writeHeader(true);
+                delegate.flush();
+            }
+            
+            @Override
+            public void close() throws IOException {
+                writeHeader(true);
+                delegate.close();
+            }
+            
+            @Override
+            public boolean isReady() {
+                return delegate.isReady();
+            }
+            
+            @Override
+            public void setWriteListener(WriteListener writeListener) {
+                delegate.setWriteListener(writeListener);
+            }
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.sweetshop.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@RequiredArgsConstructor
+public class WebConfig implements WebMvcConfigurer {
+    
+    private final ConcurrencyLimitInterceptor concurrencyLimitInterceptor;
+    private final RequestTimingInterceptor requestTimingInterceptor;
+    
+    @Value("${concurrency-limit.enabled:true}")
+    private boolean concurrencyLimitEnabled;
+    
+    @Value("${request-timing.enabled:false}")
+    private boolean requestTimingEnabled;
+    
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        if (concurrencyLimitEnabled) {
+            // The stock stream stays open for minutes and would pin a permit the whole time
+            registry.addInterceptor(concurrencyLimitInterceptor)
+                    .addPathPatterns("/api/sweets/**", "/api/async/sweets/**", "/api/auth/**")
+                    .excludePathPatterns("/api/sweets/stream");
+        }
+        if (requestTimingEnabled) {
+            registry.addInterceptor(requestTimingInterceptor);
+        }
+    }
+}
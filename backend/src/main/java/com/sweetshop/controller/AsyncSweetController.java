@@ -0,0 +1,65 @@
+package com.sweetshop.controller;
+
+import com.sweetshop.dto.SweetListResponse;
+import com.sweetshop.service.AsyncCatalogService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+// Same reads as SweetController, but the servlet thread is released while the query runs
+@RestController
+@RequestMapping("/api/async/sweets")
+@RequiredArgsConstructor
+public class AsyncSweetController {
+    
+    private final AsyncCatalogService asyncCatalogService;
+    
+    @GetMapping
+    public CompletableFuture<ResponseEntity<?>> getAllSweets(
+            @RequestParam(defaultValue = "1") int page,
+            @RequestParam(defaultValue = "10") int limit) {
+        return asyncCatalogService.getAllSweets(page, limit)
+                .handle((response, error) -> error == null ? ResponseEntity.ok(response) : failure(error));
+    }
+    
+    @GetMapping("/search")
+    public CompletableFuture<ResponseEntity<?>> searchSweets(
+            @RequestParam(required = false) String name,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(defaultValue = "1") int page,
+            @RequestParam(defaultValue = "10") int limit) {
+        CompletableFuture<SweetListResponse> result =
+                asyncCatalogService.searchSweets(name, category, minPrice, maxPrice, page, limit);
+        return result.handle((response, error) -> error == null ? ResponseEntity.ok(response) : failure(error));
+    }
+    
+    @GetMapping("/{id}")
+    public CompletableFuture<ResponseEntity<?>> getSweetById(@PathVariable Long id) {
+        return asyncCatalogService.getSweetById(id)
+                .handle((sweet, error) -> error == null ? ResponseEntity.ok(Map.of("sweet", sweet)) : failure(error));
+    }
+    
+    private ResponseEntity<?> failure(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof AsyncCatalogService.CatalogBusyException) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(Map.of("message", cause.getMessage()));
+        }
+        if (cause.getMessage() != null && cause.getMessage().contains("not found")) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("message", cause.getMessage()));
+        }
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(Map.of("message", "An error occurred: " + cause.getMessage()));
+    }
+}
@@ -1,9 +1,11 @@
 package com.sweetshop.controller;
 
 import com.sweetshop.dto.*;
+import com.sweetshop.security.BoundedPasswordEncoder;
 import com.sweetshop.service.AuthService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
@@ -24,6 +26,9 @@ public class AuthController {
         try {
             AuthResponse response = authService.register(request);
             return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        } catch (BoundedPasswordEncoder.HashingBusyException e) {
+            // Answered with 503 and Retry-After by GlobalExceptionHandler
+            throw e;
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
         }
@@ -34,6 +39,9 @@ public class AuthController {
         try {
             AuthResponse response = authService.login(request);
             return ResponseEntity.ok(response);
+        } catch (BoundedPasswordEncoder.HashingBusyException e) {
+            // Answered with 503 and Retry-After by GlobalExceptionHandler
+            throw e;
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(Map.of("message", "Invalid email or password"));
@@ -50,4 +58,25 @@ public class AuthController {
                     .body(Map.of("message", e.getMessage()));
         }
     }
+    
+    @PostMapping("/logout")
+    public ResponseEntity<?> logout(@RequestHeader(HttpHeaders.AUTHORIZATION) String authHeader) {
+        try {
+            authService.logout(authHeader.substring(7));
+            return ResponseEntity.ok(Map.of("message", "Logged out successfully"));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+    
+    @PostMapping("/logout-all")
+    public ResponseEntity<?> logoutAll(@AuthenticationPrincipal UserDetails userDetails) {
+        try {
+            authService.logoutAll(userDetails.getUsername());
+            return ResponseEntity.ok(Map.of("message", "Logged out from all sessions"));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("message", e.getMessage()));
+        }
+    }
 }
@@ -0,0 +1,70 @@
+package com.sweetshop.controller;
+
+import com.sweetshop.config.ConcurrencyLimiter;
+import com.sweetshop.security.BoundedPasswordEncoder;
+import com.sweetshop.security.JwtUtil;
+import com.sweetshop.security.RateLimitFilter;
+import com.sweetshop.security.TokenRevocationService;
+import com.sweetshop.service.AsyncCatalogService;
+import com.sweetshop.service.ChangeFeedPoller;
+import com.sweetshop.service.StockStreamService;
+import com.sweetshop.service.SweetService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/diagnostics")
+@PreAuthorize("hasRole('ADMIN')")
+@RequiredArgsConstructor
+public class DiagnosticsController {
+    
+    private final ConcurrencyLimiter concurrencyLimiter;
+    private final RateLimitFilter rateLimitFilter;
+    private final PasswordEncoder passwordEncoder;
+    private final AsyncCatalogService asyncCatalogService;
+    private final JwtUtil jwtUtil;
+    private final TokenRevocationService tokenRevocationService;
+    private final StockStreamService stockStreamService;
+    private final SweetService sweetService;
+    private final ChangeFeedPoller changeFeedPoller;
+    
+    @GetMapping
+    public ResponseEntity<?> getDiagnostics() {
+        Map<String, Object> priorities = new LinkedHashMap<>();
+        for (ConcurrencyLimiter.Priority priority : ConcurrencyLimiter.Priority.values()) {
+            priorities.put(priority.name(), Map.of(
+                    "accepted", concurrencyLimiter.getAccepted(priority),
+                    "shed", concurrencyLimiter.getShed(priority)));
+        }
+        
+        Map<String, Object> concurrency = new LinkedHashMap<>();
+        concurrency.put("limit", concurrencyLimiter.getLimit());
+        concurrency.put("inFlight", concurrencyLimiter.getInFlight());
+        concurrency.put("priorities", priorities);
+        
+        Map<String, Object> diagnostics = new LinkedHashMap<>();
+        diagnostics.put("concurrencyLimit", concurrency);
+        diagnostics.put("rateLimitBuckets", rateLimitFilter.getBucketCount());
+        if (passwordEncoder instanceof BoundedPasswordEncoder bounded) {
+            diagnostics.put("hashingQueue", bounded.getQueuedTasks());
+        }
+        diagnostics.put("catalogQueue", asyncCatalogService.getQueuedTasks());
+        diagnostics.put("coalescedReads", sweetService.getCoalescedReadCount());
+        diagnostics.put("cachedTokens", jwtUtil.getCachedTokenCount());
+        diagnostics.put("revokedTokens", tokenRevocationService.getRevokedCount());
+        diagnostics.put("streamSubscribers", stockStreamService.getSubscriberCount());
+        diagnostics.put("changeFeed", Map.of(
+                "position", changeFeedPoller.getPosition(),
+                "applied", changeFeedPoller.getAppliedCount(),
+                "lagMs", changeFeedPoller.getLagMillis()));
+        return ResponseEntity.ok(diagnostics);
+    }
+}
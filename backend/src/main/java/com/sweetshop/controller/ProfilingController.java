@@ -0,0 +1,66 @@
+package com.sweetshop.controller;
+
+import com.sweetshop.service.FlightRecordingService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/profiling/recording")
+@PreAuthorize("hasRole('ADMIN')")
+@RequiredArgsConstructor
+public class ProfilingController {
+    
+    private final FlightRecordingService flightRecordingService;
+    
+    @GetMapping
+    public ResponseEntity<?> getRecording() {
+        return ResponseEntity.ok(flightRecordingService.status());
+    }
+    
+    @PostMapping("/start")
+    public ResponseEntity<?> startRecording(
+            @RequestParam(defaultValue = "profile") String settings,
+            @RequestParam(required = false) Long durationSeconds) {
+        return ResponseEntity.ok(flightRecordingService.start(settings, durationSeconds));
+    }
+    
+    // Streams the .jfr file and deletes the temporary copy once it has been sent
+    @PostMapping("/stop")
+    public ResponseEntity<StreamingResponseBody> stopRecording() throws IOException {
+        Path file = flightRecordingService.stop();
+        
+        StreamingResponseBody body = outputStream -> {
+            try {
+                Files.copy(file, outputStream);
+            } finally {
+                Files.deleteIfExists(file);
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .contentLength(Files.size(file))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + file.getFileName() + "\"")
+                .body(body);
+    }
+    
+    @ExceptionHandler(IllegalStateException.class)
+    public ResponseEntity<?> handleConflict(IllegalStateException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("message", ex.getMessage()));
+    }
+    
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<?> handleBadSettings(IllegalArgumentException ex) {
+        return ResponseEntity.badRequest().body(Map.of("message", ex.getMessage()));
+    }
+}
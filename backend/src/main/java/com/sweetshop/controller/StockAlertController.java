@@ -0,0 +1,70 @@
+package com.sweetshop.controller;
+
+import com.sweetshop.dto.*;
+import com.sweetshop.service.StockAlertService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/alerts")
+@PreAuthorize("hasRole('ADMIN')")
+@RequiredArgsConstructor
+public class StockAlertController {
+    
+    private final StockAlertService stockAlertService;
+    
+    @GetMapping
+    public ResponseEntity<StockAlertListResponse> getAlerts(
+            @RequestParam(required = false) Boolean acknowledged,
+            @RequestParam(defaultValue = "1") int page,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(stockAlertService.getAlerts(acknowledged, page, limit));
+    }
+    
+    @PostMapping("/{id}/acknowledge")
+    public ResponseEntity<?> acknowledgeAlert(
+            @PathVariable Long id,
+            @AuthenticationPrincipal UserDetails userDetails) {
+        try {
+            StockAlertDto alert = stockAlertService.acknowledge(id, userDetails.getUsername());
+            return ResponseEntity.ok(Map.of("alert", alert));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("message", e.getMessage()));
+        }
+    }
+    
+    @GetMapping("/thresholds")
+    public ResponseEntity<?> getThresholds() {
+        return ResponseEntity.ok(Map.of("thresholds", stockAlertService.getThresholds()));
+    }
+    
+    @PutMapping("/thresholds")
+    public ResponseEntity<?> saveThreshold(@Valid @RequestBody StockThresholdRequest request) {
+        try {
+            StockThresholdDto threshold = stockAlertService.saveThreshold(request);
+            return ResponseEntity.ok(Map.of("threshold", threshold));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+    
+    @DeleteMapping("/thresholds/{id}")
+    public ResponseEntity<?> deleteThreshold(@PathVariable Long id) {
+        try {
+            stockAlertService.deleteThreshold(id);
+            return ResponseEntity.ok(Map.of("message", "Threshold deleted successfully"));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("message", e.getMessage()));
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.sweetshop.controller;
+
+import com.sweetshop.dto.StoreDto;
+import com.sweetshop.dto.StoreRequest;
+import com.sweetshop.service.StoreInventoryService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/stores")
+@RequiredArgsConstructor
+public class StoreController {
+    
+    private final StoreInventoryService storeInventoryService;
+    
+    @GetMapping
+    public ResponseEntity<?> getStores() {
+        return ResponseEntity.ok(Map.of("stores", storeInventoryService.getStores()));
+    }
+    
+    @PostMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> createStore(@Valid @RequestBody StoreRequest request) {
+        try {
+            StoreDto store = storeInventoryService.createStore(request);
+            return ResponseEntity.status(HttpStatus.CREATED).body(Map.of("store", store));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+}
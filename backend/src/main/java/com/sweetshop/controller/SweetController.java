@@ -1,13 +1,21 @@
 package com.sweetshop.controller;
 
 import com.sweetshop.dto.*;
+import com.sweetshop.event.LockWait;
+import com.sweetshop.event.PurchaseJfrEvent;
+import com.sweetshop.service.StockLeaseService;
+import com.sweetshop.service.StockStreamService;
+import com.sweetshop.service.StoreInventoryService;
 import com.sweetshop.service.SweetService;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.math.BigDecimal;
 import java.util.Map;
@@ -18,6 +26,10 @@ import java.util.Map;
 public class SweetController {
     
     private final SweetService sweetService;
+    private final StockStreamService stockStreamService;
+    private final StoreInventoryService storeInventoryService;
+    private final StockLeaseService stockLeaseService;
+    private final MeterRegistry meterRegistry;
     
     @PostMapping
     @PreAuthorize("hasRole('ADMIN')")
@@ -50,6 +62,11 @@ public class SweetController {
         return ResponseEntity.ok(response);
     }
     
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamStockUpdates() {
+        return stockStreamService.subscribe();
+    }
+    
     @GetMapping("/{id}")
     public ResponseEntity<?> getSweetById(@PathVariable Long id) {
         try {
@@ -61,6 +78,16 @@ public class SweetController {
         }
     }
     
+    @GetMapping("/{id}/availability")
+    public ResponseEntity<?> getAvailability(@PathVariable Long id) {
+        try {
+            return ResponseEntity.ok(storeInventoryService.getAvailability(id));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("message", e.getMessage()));
+        }
+    }
+    
     @PutMapping("/{id}")
     public ResponseEntity<?> updateSweet(@PathVariable Long id, @RequestBody SweetRequest request) {
         try {
@@ -91,25 +118,44 @@ public class SweetController {
     public ResponseEntity<?> purchaseSweet(
             @PathVariable Long id,
             @RequestBody(required = false) QuantityRequest request) {
+        PurchaseJfrEvent event = new PurchaseJfrEvent();
+        event.begin();
+        long lockWaitBefore = LockWait.snapshot();
         try {
             Integer quantity = request != null && request.getQuantity() != null ? request.getQuantity() : 1;
+            Long storeId = request != null ? request.getStoreId() : null;
+            event.sweetId = id;
+            event.quantity = quantity;
+            event.mode = storeId != null ? "store" : stockLeaseService.isEnabled() ? "lease" : "row";
             
             if (quantity < 1) {
+                countPurchase("invalid", event, lockWaitBefore);
                 return ResponseEntity.badRequest().body(Map.of("message", "Quantity must be at least 1"));
             }
             
-            PurchaseResponse response = sweetService.purchaseSweet(id, quantity);
+            PurchaseResponse response;
+            if (storeId != null) {
+                response = storeInventoryService.purchase(id, storeId, quantity);
+            } else if (stockLeaseService.isEnabled()) {
+                response = stockLeaseService.purchase(id, quantity);
+            } else {
+                response = sweetService.purchaseSweet(id, quantity);
+            }
+            countPurchase("success", event, lockWaitBefore);
             return ResponseEntity.ok(response);
         } catch (SweetService.InsufficientStockException e) {
+            countPurchase("insufficient_stock", event, lockWaitBefore);
             return ResponseEntity.badRequest().body(Map.of(
                     "message", e.getMessage(),
                     "available", e.getAvailable()
             ));
         } catch (RuntimeException e) {
             if (e.getMessage().contains("not found")) {
+                countPurchase("not_found", event, lockWaitBefore);
                 return ResponseEntity.status(HttpStatus.NOT_FOUND)
                         .body(Map.of("message", e.getMessage()));
             }
+            countPurchase("invalid", event, lockWaitBefore);
             return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
         }
     }
@@ -124,7 +170,9 @@ public class SweetController {
                 return ResponseEntity.badRequest().body(Map.of("message", "Quantity must be at least 1"));
             }
             
-            RestockResponse response = sweetService.restockSweet(id, request.getQuantity());
+            RestockResponse response = request.getStoreId() != null
+                    ? storeInventoryService.restock(id, request.getStoreId(), request.getQuantity())
+                    : sweetService.restockSweet(id, request.getQuantity());
             return ResponseEntity.ok(response);
         } catch (RuntimeException e) {
             if (e.getMessage().contains("not found")) {
@@ -134,4 +182,13 @@ public class SweetController {
             return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
         }
     }
+    
+    private void countPurchase(String outcome, PurchaseJfrEvent event, long lockWaitBefore) {
+        meterRegistry.counter("sweetshop.purchases", "outcome", outcome).increment();
+        if (event.shouldCommit()) {
+            event.outcome = outcome;
+            event.lockWait = LockWait.snapshot() - lockWaitBefore;
+            event.commit();
+        }
+    }
 }
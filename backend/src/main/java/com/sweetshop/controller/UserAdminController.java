@@ -0,0 +1,58 @@
+package com.sweetshop.controller;
+
+import com.sweetshop.dto.*;
+import com.sweetshop.service.AuthService;
+import com.sweetshop.service.UserProvisioningService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/users")
+@PreAuthorize("hasRole('ADMIN')")
+@RequiredArgsConstructor
+public class UserAdminController {
+    
+    private final AuthService authService;
+    private final UserProvisioningService userProvisioningService;
+    
+    @PostMapping("/bulk")
+    public ResponseEntity<?> bulkRegister(@Valid @RequestBody BulkRegisterRequest request) {
+        try {
+            return ResponseEntity.ok(userProvisioningService.provision(request.getUsers()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("message", e.getMessage()));
+        }
+    }
+    
+    @PutMapping("/{id}/role")
+    public ResponseEntity<?> updateRole(@PathVariable Long id, @Valid @RequestBody RoleUpdateRequest request) {
+        try {
+            UserDto user = authService.updateRole(id, request.getRole());
+            return ResponseEntity.ok(Map.of("user", user));
+        } catch (RuntimeException e) {
+            if (e.getMessage().contains("not found")) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(Map.of("message", e.getMessage()));
+            }
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+    
+    @PostMapping("/{id}/revoke-tokens")
+    public ResponseEntity<?> revokeTokens(@PathVariable Long id) {
+        try {
+            authService.revokeTokens(id);
+            return ResponseEntity.ok(Map.of("message", "All tokens revoked"));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("message", e.getMessage()));
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.sweetshop.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AvailabilityResponse {
+    private Long sweetId;
+    private String sweetName;
+    private Integer totalQuantity;
+    private List<StoreStockDto> stores;
+    // False when a shard did not answer in time, so the totals only cover the shards that did
+    private boolean complete;
+}
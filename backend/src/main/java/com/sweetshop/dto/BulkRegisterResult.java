@@ -0,0 +1,22 @@
+package com.sweetshop.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkRegisterResult {
+    private int index;
+    private String email;
+    private Status status;
+    private Long id;
+    private String message;
+    
+    public enum Status {
+        CREATED, DUPLICATE, INVALID
+    }
+}
@@ -1,5 +1,6 @@
 package com.sweetshop.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -13,4 +14,11 @@ public class PurchaseResponse {
     private String message;
     private SweetDto sweet;
     private Integer purchased;
+    
+    // Set for store purchases and restocks, which leave the catalog quantity alone
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long storeId;
+    
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Integer storeQuantity;
 }
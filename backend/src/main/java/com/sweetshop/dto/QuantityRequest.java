@@ -13,4 +13,7 @@ import lombok.NoArgsConstructor;
 public class QuantityRequest {
     @Min(value = 1, message = "Quantity must be at least 1")
     private Integer quantity;
+    
+    // Omitted for the catalog stock; otherwise the store whose stock changes
+    private Long storeId;
 }
@@ -0,0 +1,17 @@
+package com.sweetshop.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RoleUpdateRequest {
+    
+    @NotBlank(message = "Role is required")
+    private String role;
+}
@@ -0,0 +1,39 @@
+package com.sweetshop.dto;
+
+import com.sweetshop.entity.StockAlert;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockAlertDto {
+    private Long id;
+    private Long sweetId;
+    private String sweetName;
+    private Integer quantity;
+    private Integer threshold;
+    private Boolean acknowledged;
+    private String acknowledgedBy;
+    private LocalDateTime acknowledgedAt;
+    private LocalDateTime createdAt;
+    
+    public static StockAlertDto fromEntity(StockAlert alert) {
+        return StockAlertDto.builder()
+                .id(alert.getId())
+                .sweetId(alert.getSweetId())
+                .sweetName(alert.getSweetName())
+                .quantity(alert.getQuantity())
+                .threshold(alert.getThreshold())
+                .acknowledged(alert.getAcknowledged())
+                .acknowledgedBy(alert.getAcknowledgedBy())
+                .acknowledgedAt(alert.getAcknowledgedAt())
+                .createdAt(alert.getCreatedAt())
+                .build();
+    }
+}
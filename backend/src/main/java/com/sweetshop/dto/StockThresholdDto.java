@@ -0,0 +1,27 @@
+package com.sweetshop.dto;
+
+import com.sweetshop.entity.StockThreshold;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockThresholdDto {
+    private Long id;
+    private Long sweetId;
+    private String category;
+    private Integer threshold;
+    
+    public static StockThresholdDto fromEntity(StockThreshold threshold) {
+        return StockThresholdDto.builder()
+                .id(threshold.getId())
+                .sweetId(threshold.getSweetId())
+                .category(threshold.getCategory() != null ? threshold.getCategory().getDisplayName() : null)
+                .threshold(threshold.getThreshold())
+                .build();
+    }
+}
@@ -0,0 +1,24 @@
+package com.sweetshop.dto;
+
+import com.sweetshop.entity.Sweet;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockThresholdRequest {
+    
+    private Long sweetId;
+    
+    private Sweet.Category category;
+    
+    @NotNull(message = "Threshold is required")
+    @Min(value = 0, message = "Threshold cannot be negative")
+    private Integer threshold;
+}
@@ -0,0 +1,32 @@
+package com.sweetshop.dto;
+
+import com.sweetshop.event.StockChangedEvent;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockUpdateDto {
+    private Long id;
+    private Integer quantity;
+    private BigDecimal price;
+    private LocalDateTime updatedAt;
+    private boolean deleted;
+    
+    public static StockUpdateDto fromEvent(StockChangedEvent event) {
+        return StockUpdateDto.builder()
+                .id(event.getSweetId())
+                .quantity(event.getQuantity())
+                .price(event.getPrice())
+                .updatedAt(event.getUpdatedAt())
+                .deleted(event.isDeleted())
+                .build();
+    }
+}
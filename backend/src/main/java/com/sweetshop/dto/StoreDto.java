@@ -0,0 +1,25 @@
+package com.sweetshop.dto;
+
+import com.sweetshop.entity.Store;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StoreDto {
+    private Long id;
+    private String name;
+    private String address;
+    
+    public static StoreDto fromEntity(Store store) {
+        return StoreDto.builder()
+                .id(store.getId())
+                .name(store.getName())
+                .address(store.getAddress())
+                .build();
+    }
+}
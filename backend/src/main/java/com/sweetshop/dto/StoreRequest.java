@@ -0,0 +1,21 @@
+package com.sweetshop.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StoreRequest {
+    
+    @NotBlank(message = "Name is required")
+    private String name;
+    
+    @Size(max = 255, message = "Address must be at most 255 characters")
+    private String address;
+}
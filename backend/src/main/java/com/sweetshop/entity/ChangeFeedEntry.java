@@ -0,0 +1,45 @@
+package com.sweetshop.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+// One row per committed change that other instances must apply to their in-memory state
+@Entity
+@Table(name = "change_feed")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ChangeFeedEntry {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long seq;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private EntityType entityType;
+    
+    private Long entityId;
+    
+    // Email for users, token id for revoked tokens, category for category thresholds
+    private String entityKey;
+    
+    @Column(nullable = false, length = 64)
+    private String nodeId;
+    
+    @CreationTimestamp
+    @Column(updatable = false)
+    private LocalDateTime createdAt;
+    
+    public enum EntityType {
+        SWEET,
+        USER,
+        REVOKED_TOKEN,
+        STOCK_THRESHOLD
+    }
+}
@@ -0,0 +1,27 @@
+package com.sweetshop.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+// How far each instance has applied the change feed; rows every live instance has passed are compacted
+@Entity
+@Table(name = "change_feed_offsets")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ChangeFeedOffset {
+    
+    @Id
+    @Column(length = 64)
+    private String nodeId;
+    
+    @Column(nullable = false)
+    private Long seq;
+    
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,45 @@
+package com.sweetshop.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "stock_alerts")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockAlert {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(nullable = false)
+    private Long sweetId;
+    
+    @Column(nullable = false)
+    private String sweetName;
+    
+    @Column(nullable = false)
+    private Integer quantity;
+    
+    @Column(nullable = false)
+    private Integer threshold;
+    
+    @Column(nullable = false)
+    @Builder.Default
+    private Boolean acknowledged = false;
+    
+    private String acknowledgedBy;
+    
+    private LocalDateTime acknowledgedAt;
+    
+    @CreationTimestamp
+    @Column(updatable = false)
+    private LocalDateTime createdAt;
+}
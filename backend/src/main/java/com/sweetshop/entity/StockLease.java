@@ -0,0 +1,35 @@
+package com.sweetshop.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+// Units of a sweet taken out of sweets.quantity and held by one instance to sell locally
+@Entity
+@Table(name = "stock_leases", uniqueConstraints = @UniqueConstraint(columnNames = {"sweetId", "nodeId"}))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockLease {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(nullable = false)
+    private Long sweetId;
+    
+    @Column(nullable = false, length = 64)
+    private String nodeId;
+    
+    // Unsold units as of the holder's last flush
+    @Column(nullable = false)
+    private Integer units;
+    
+    // Renewed on every flush; an expired lease belongs to an instance that is gone
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+}
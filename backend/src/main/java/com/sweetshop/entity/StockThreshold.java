@@ -0,0 +1,28 @@
+package com.sweetshop.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+@Entity
+@Table(name = "stock_thresholds")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockThreshold {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(unique = true)
+    private Long sweetId;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(unique = true)
+    private Sweet.Category category;
+    
+    @Column(nullable = false)
+    private Integer threshold;
+}
@@ -8,8 +8,13 @@ import org.hibernate.annotations.UpdateTimestamp;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
+// Indexes are created by the V3 migration; declared here so schemas generated for H2 match
 @Entity
-@Table(name = "sweets")
+@Table(name = "sweets", indexes = {
+        @Index(name = "idx_sweets_created_at_id", columnList = "created_at desc, id desc"),
+        @Index(name = "idx_sweets_category_price", columnList = "category, price"),
+        @Index(name = "idx_sweets_price", columnList = "price")
+})
 @Getter
 @Setter
 @NoArgsConstructor
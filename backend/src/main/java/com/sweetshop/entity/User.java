@@ -14,6 +14,7 @@ import java.util.List;
 
 @Entity
 @Table(name = "users")
+@EntityListeners(UserEntityListener.class)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -39,6 +40,10 @@ public class User implements UserDetails {
     @Builder.Default
     private Role role = Role.USER;
     
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer tokenVersion = 0;
+    
     @CreationTimestamp
     @Column(updatable = false)
     private LocalDateTime createdAt;
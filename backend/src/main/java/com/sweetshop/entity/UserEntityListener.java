@@ -0,0 +1,26 @@
+package com.sweetshop.entity;
+
+import com.sweetshop.event.UserChangedEvent;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+
+// Instantiated by Hibernate through Spring, so every write to users reaches the in-memory caches
+@RequiredArgsConstructor
+public class UserEntityListener {
+    
+    private final ApplicationEventPublisher eventPublisher;
+    
+    @PostPersist
+    @PostUpdate
+    public void onSaved(User user) {
+        eventPublisher.publishEvent(UserChangedEvent.of(user));
+    }
+    
+    @PostRemove
+    public void onRemoved(User user) {
+        eventPublisher.publishEvent(UserChangedEvent.removed(user));
+    }
+}
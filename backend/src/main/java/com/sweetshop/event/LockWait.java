@@ -0,0 +1,34 @@
+package com.sweetshop.event;
+
+import java.util.concurrent.locks.Lock;
+import java.util.function.Supplier;
+
+// Adds up, per thread, the time spent acquiring stock locks; a purchase diffs a snapshot taken
+// when it starts, the way QueryCounter is used for SQL time
+public final class LockWait {
+    
+    private static final ThreadLocal<long[]> NANOS = ThreadLocal.withInitial(() -> new long[1]);
+    
+    private LockWait() {
+    }
+    
+    public static long snapshot() {
+        return NANOS.get()[0];
+    }
+    
+    // Runs a statement that blocks on a row lock, such as SELECT ... FOR UPDATE or a conditional UPDATE
+    public static <T> T timed(Supplier<T> acquire) {
+        long start = System.nanoTime();
+        try {
+            return acquire.get();
+        } finally {
+            NANOS.get()[0] += System.nanoTime() - start;
+        }
+    }
+    
+    public static void lock(Lock lock) {
+        long start = System.nanoTime();
+        lock.lock();
+        NANOS.get()[0] += System.nanoTime() - start;
+    }
+}
@@ -0,0 +1,34 @@
+package com.sweetshop.event;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+// Spans one purchase request, so flame graph samples inside it can be tied to the sweet and outcome
+@Name("sweetshop.Purchase")
+@Label("Purchase")
+@Category("Sweet Shop")
+@StackTrace(false)
+public class PurchaseJfrEvent extends jdk.jfr.Event {
+    
+    @Label("Sweet Id")
+    public long sweetId;
+    
+    @Label("Quantity")
+    public int quantity;
+    
+    @Label("Mode")
+    @Description("row, lease or store")
+    public String mode;
+    
+    @Label("Outcome")
+    public String outcome;
+    
+    @Label("Lock Wait")
+    @Description("Time spent acquiring the stock lock: the sweet row, the lease and its row, or the store stock row")
+    @Timespan(Timespan.NANOSECONDS)
+    public long lockWait;
+}
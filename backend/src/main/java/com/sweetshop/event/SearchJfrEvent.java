@@ -0,0 +1,31 @@
+package com.sweetshop.event;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("sweetshop.Search")
+@Label("Catalog Search")
+@Category("Sweet Shop")
+@StackTrace(false)
+public class SearchJfrEvent extends jdk.jfr.Event {
+    
+    @Label("Name Filter")
+    public String name;
+    
+    @Label("Category Filter")
+    public String category;
+    
+    @Label("Min Price")
+    public String minPrice;
+    
+    @Label("Max Price")
+    public String maxPrice;
+    
+    @Label("Page")
+    public int page;
+    
+    @Label("Result Count")
+    public long resultCount;
+}
@@ -0,0 +1,38 @@
+package com.sweetshop.event;
+
+import com.sweetshop.entity.Sweet;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Getter
+@AllArgsConstructor
+public class StockChangedEvent {
+    
+    private final Long sweetId;
+    private final String name;
+    private final Sweet.Category category;
+    private final Integer previousQuantity;
+    private final Integer quantity;
+    private final BigDecimal price;
+    private final LocalDateTime updatedAt;
+    private final boolean deleted;
+    
+    public static StockChangedEvent of(Sweet sweet, Integer previousQuantity) {
+        return new StockChangedEvent(sweet.getId(), sweet.getName(), sweet.getCategory(), previousQuantity,
+                sweet.getQuantity(), sweet.getPrice(), sweet.getUpdatedAt(), false);
+    }
+    
+    // For callers that report a quantity other than the row's, such as one including leased units
+    public static StockChangedEvent of(Sweet sweet, Integer previousQuantity, Integer quantity) {
+        return new StockChangedEvent(sweet.getId(), sweet.getName(), sweet.getCategory(), previousQuantity,
+                quantity, sweet.getPrice(), sweet.getUpdatedAt(), false);
+    }
+    
+    public static StockChangedEvent deleted(Sweet sweet) {
+        return new StockChangedEvent(sweet.getId(), sweet.getName(), sweet.getCategory(), sweet.getQuantity(),
+                0, sweet.getPrice(), LocalDateTime.now(), true);
+    }
+}
@@ -0,0 +1,16 @@
+package com.sweetshop.event;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("sweetshop.TokenValidation")
+@Label("Token Validation")
+@Category("Sweet Shop")
+@StackTrace(false)
+public class TokenValidationJfrEvent extends jdk.jfr.Event {
+    
+    @Label("Outcome")
+    public String outcome;
+}
@@ -0,0 +1,23 @@
+package com.sweetshop.event;
+
+import com.sweetshop.entity.User;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class UserChangedEvent {
+    
+    private final Long userId;
+    private final String email;
+    private final Integer tokenVersion;
+    private final boolean removed;
+    
+    public static UserChangedEvent of(User user) {
+        return new UserChangedEvent(user.getId(), user.getEmail(), user.getTokenVersion(), false);
+    }
+    
+    public static UserChangedEvent removed(User user) {
+        return new UserChangedEvent(user.getId(), user.getEmail(), user.getTokenVersion(), true);
+    }
+}
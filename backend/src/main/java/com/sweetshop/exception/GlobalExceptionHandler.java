@@ -1,5 +1,7 @@
 package com.sweetshop.exception;
 
+import com.sweetshop.security.BoundedPasswordEncoder;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.BadCredentialsException;
@@ -38,6 +40,13 @@ public class GlobalExceptionHandler {
                 .body(Map.of("message", "Invalid email or password"));
     }
     
+    @ExceptionHandler(BoundedPasswordEncoder.HashingBusyException.class)
+    public ResponseEntity<?> handleHashingBusy(BoundedPasswordEncoder.HashingBusyException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(Map.of("message", ex.getMessage()));
+    }
+    
     @ExceptionHandler(Exception.class)
     public ResponseEntity<?> handleGenericException(Exception ex) {
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -0,0 +1,22 @@
+package com.sweetshop.repository;
+
+import com.sweetshop.entity.ChangeFeedOffset;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface ChangeFeedOffsetRepository extends JpaRepository<ChangeFeedOffset, String> {
+    @Query("SELECT MIN(o.seq) FROM ChangeFeedOffset o WHERE o.updatedAt >= :since")
+    Long findMinSeqSince(@Param("since") LocalDateTime since);
+    
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM ChangeFeedOffset o WHERE o.updatedAt < :before")
+    int deleteStale(@Param("before") LocalDateTime before);
+}
@@ -0,0 +1,25 @@
+package com.sweetshop.repository;
+
+import com.sweetshop.entity.ChangeFeedEntry;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Repository
+public interface ChangeFeedRepository extends JpaRepository<ChangeFeedEntry, Long> {
+    List<ChangeFeedEntry> findBySeqGreaterThanOrderBySeqAsc(Long seq, Pageable pageable);
+    
+    @Query("SELECT COALESCE(MAX(c.seq), 0) FROM ChangeFeedEntry c")
+    long findMaxSeq();
+    
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM ChangeFeedEntry c WHERE c.seq <= :seq")
+    int deleteUpTo(@Param("seq") Long seq);
+}
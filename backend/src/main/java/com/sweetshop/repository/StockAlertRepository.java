@@ -0,0 +1,12 @@
+package com.sweetshop.repository;
+
+import com.sweetshop.entity.StockAlert;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface StockAlertRepository extends JpaRepository<StockAlert, Long> {
+    Page<StockAlert> findByAcknowledged(Boolean acknowledged, Pageable pageable);
+}
@@ -0,0 +1,34 @@
+package com.sweetshop.repository;
+
+import com.sweetshop.entity.StockLease;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface StockLeaseRepository extends JpaRepository<StockLease, Long> {
+    Optional<StockLease> findBySweetIdAndNodeId(Long sweetId, String nodeId);
+    List<StockLease> findByExpiresAtBefore(LocalDateTime now);
+    
+    @Query("SELECT l.sweetId AS sweetId, SUM(l.units) AS units FROM StockLease l " +
+           "WHERE l.sweetId IN :sweetIds AND l.nodeId <> :nodeId GROUP BY l.sweetId")
+    List<LeasedUnits> sumUnitsHeldByOthers(@Param("sweetIds") Collection<Long> sweetIds, @Param("nodeId") String nodeId);
+    
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM StockLease l WHERE l.sweetId = :sweetId")
+    int deleteBySweetId(@Param("sweetId") Long sweetId);
+    
+    interface LeasedUnits {
+        Long getSweetId();
+        Long getUnits();
+    }
+}
@@ -0,0 +1,14 @@
+package com.sweetshop.repository;
+
+import com.sweetshop.entity.Sweet;
+import com.sweetshop.entity.StockThreshold;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface StockThresholdRepository extends JpaRepository<StockThreshold, Long> {
+    Optional<StockThreshold> findBySweetId(Long sweetId);
+    Optional<StockThreshold> findByCategory(Sweet.Category category);
+}
@@ -1,12 +1,15 @@
 package com.sweetshop.repository;
 
 import com.sweetshop.entity.Sweet;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.util.Optional;
@@ -16,6 +19,11 @@ public interface SweetRepository extends JpaRepository<Sweet, Long> {
     Optional<Sweet> findByName(String name);
     boolean existsByName(String name);
     
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM Sweet s WHERE s.id = :id")
+    Optional<Sweet> findByIdForUpdate(@Param("id") Long id);
+    
+    @Transactional(readOnly = true)
     @Query("SELECT s FROM Sweet s WHERE " +
            "(:name IS NULL OR LOWER(s.name) LIKE LOWER(CONCAT('%', :name, '%'))) AND " +
            "(:category IS NULL OR s.category = :category) AND " +
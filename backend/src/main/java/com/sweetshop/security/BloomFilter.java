@@ -0,0 +1,61 @@
+package com.sweetshop.security;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Lock-free Bloom filter over String hash codes; callers confirm positives against an exact set
+public class BloomFilter {
+    
+    private final AtomicLongArray words;
+    private final int mask;
+    private final int hashes;
+    
+    public BloomFilter(int expectedInsertions, double falsePositiveRate) {
+        int n = Math.max(1, expectedInsertions);
+        double ln2 = Math.log(2);
+        long optimalBits = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (ln2 * ln2));
+        
+        // A power-of-two size turns the modulo into a mask
+        int bits = Integer.highestOneBit((int) Math.min(Math.max(optimalBits, 64), 1 << 30) - 1) << 1;
+        this.words = new AtomicLongArray(bits >>> 6);
+        this.mask = bits - 1;
+        this.hashes = (int) Math.min(16, Math.max(1, Math.round((double) bits / n * ln2)));
+    }
+    
+    public void put(String value) {
+        long hash = mix(value.hashCode());
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        for (int i = 0; i < hashes; i++) {
+            int bit = (h1 + i * h2) & mask;
+            long flag = 1L << bit;
+            words.getAndAccumulate(bit >>> 6, flag, (current, update) -> current | update);
+        }
+    }
+    
+    public boolean mightContain(String value) {
+        long hash = mix(value.hashCode());
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        for (int i = 0; i < hashes; i++) {
+            int bit = (h1 + i * h2) & mask;
+            if ((words.get(bit >>> 6) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    public int getBitCount() {
+        return mask + 1;
+    }
+    
+    // MurmurHash3 finalizer, spreads the 32-bit hash code over 64 bits
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
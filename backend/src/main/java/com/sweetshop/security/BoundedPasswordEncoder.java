@@ -0,0 +1,186 @@
+package com.sweetshop.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Runs hashing on a fixed pool so a login burst cannot take every core away from request threads
+public class BoundedPasswordEncoder implements PasswordEncoder {
+    
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMs;
+    private final long bulkTimeoutMs;
+    // Hashing time on the pool thread, separate from the time spent queued for one
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Timer queueTimer;
+    
+    public BoundedPasswordEncoder(PasswordEncoder delegate, int threads, int queueCapacity, long timeoutMs,
+                                  long bulkTimeoutMs, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.timeoutMs = timeoutMs;
+        this.bulkTimeoutMs = bulkTimeoutMs;
+        this.encodeTimer = Timer.builder("sweetshop.password.hash")
+                .tag("operation", "encode")
+                .register(meterRegistry);
+        this.matchesTimer = Timer.builder("sweetshop.password.hash")
+                .tag("operation", "matches")
+                .register(meterRegistry);
+        this.queueTimer = Timer.builder("sweetshop.password.hash.queue")
+                .register(meterRegistry);
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+    
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return submit(encodeTimer, () -> delegate.encode(rawPassword));
+    }
+    
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return submit(matchesTimer, () -> delegate.matches(rawPassword, encodedPassword));
+    }
+    
+    // Hashes a batch one password per task with at most half the pool busy on it, so logins
+    // arriving meanwhile still find a free thread. Each hash must finish within the per-call
+    // timeout and the whole batch within the bulk timeout.
+    public List<String> encodeAll(List<? extends CharSequence> rawPasswords) {
+        int slots = Math.max(1, getThreads() / 2);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(bulkTimeoutMs);
+        CompletionService<Hashed> completion = new ExecutorCompletionService<>(executor);
+        List<Future<Hashed>> submitted = new ArrayList<>();
+        String[] encoded = new String[rawPasswords.size()];
+        
+        try {
+            int next = 0;
+            int inFlight = 0;
+            for (int done = 0; done < encoded.length; done++) {
+                while (inFlight < slots && next < encoded.length) {
+                    int index = next++;
+                    CharSequence rawPassword = rawPasswords.get(index);
+                    long queuedAt = System.nanoTime();
+                    submitted.add(completion.submit(() -> {
+                        queueTimer.record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+                        return new Hashed(index, encodeTimer.record(() -> delegate.encode(rawPassword)));
+                    }));
+                    inFlight++;
+                }
+                
+                long wait = Math.min(deadline - System.nanoTime(), TimeUnit.MILLISECONDS.toNanos(timeoutMs));
+                Future<Hashed> finished = wait > 0 ? completion.poll(wait, TimeUnit.NANOSECONDS) : null;
+                if (finished == null) {
+                    throw new HashingBusyException();
+                }
+                Hashed hashed = result(finished);
+                encoded[hashed.index()] = hashed.hash();
+                inFlight--;
+            }
+        } catch (RejectedExecutionException e) {
+            submitted.forEach(future -> future.cancel(true));
+            throw new HashingBusyException();
+        } catch (InterruptedException e) {
+            submitted.forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new HashingBusyException();
+        } catch (RuntimeException e) {
+            submitted.forEach(future -> future.cancel(true));
+            throw e;
+        }
+        return List.of(encoded);
+    }
+    
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+    
+    public int getThreads() {
+        return executor.getMaximumPoolSize();
+    }
+    
+    public int getQueuedTasks() {
+        return executor.getQueue().size();
+    }
+    
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+    
+    private <T> T submit(Timer timer, Callable<T> task) {
+        Future<T> future;
+        long queuedAt = System.nanoTime();
+        try {
+            future = executor.submit(() -> {
+                queueTimer.record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+                return timer.recordCallable(task);
+            });
+        } catch (RejectedExecutionException e) {
+            throw new HashingBusyException();
+        }
+        return await(future, timeoutMs);
+    }
+    
+    private static <T> T result(Future<T> done) {
+        try {
+            return done.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new HashingBusyException();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+    
+    private <T> T await(Future<T> future, long timeout) {
+        try {
+            return future.get(timeout, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new HashingBusyException();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new HashingBusyException();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+    
+    private record Hashed(int index, String hash) {
+    }
+    
+    public static class HashingBusyException extends RuntimeException {
+        public HashingBusyException() {
+            super("Server is busy, please retry shortly");
+        }
+    }
+}
@@ -1,11 +1,16 @@
 package com.sweetshop.security;
 
+import com.sweetshop.config.RequestTiming;
+import com.sweetshop.event.TokenValidationJfrEvent;
 import com.sweetshop.service.CustomUserDetailsService;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -15,13 +20,39 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 
 @Component
-@RequiredArgsConstructor
 public class JwtAuthFilter extends OncePerRequestFilter {
     
     private final JwtUtil jwtUtil;
     private final CustomUserDetailsService userDetailsService;
+    private final TokenVersionRegistry tokenVersionRegistry;
+    private final TokenRevocationService tokenRevocationService;
+    private final WebAuthenticationDetailsSource authenticationDetailsSource = new WebAuthenticationDetailsSource();
+    // Parse and signature check only; cached tokens make the valid timer mostly cache hits
+    private final Timer validTokenTimer;
+    private final Timer invalidTokenTimer;
+    
+    public JwtAuthFilter(JwtUtil jwtUtil,
+                         CustomUserDetailsService userDetailsService,
+                         TokenVersionRegistry tokenVersionRegistry,
+                         TokenRevocationService tokenRevocationService,
+                         MeterRegistry meterRegistry) {
+        this.jwtUtil = jwtUtil;
+        this.userDetailsService = userDetailsService;
+        this.tokenVersionRegistry = tokenVersionRegistry;
+        this.tokenRevocationService = tokenRevocationService;
+        this.validTokenTimer = Timer.builder("sweetshop.jwt.verify")
+                .tag("outcome", "valid")
+                .register(meterRegistry);
+        this.invalidTokenTimer = Timer.builder("sweetshop.jwt.verify")
+                .tag("outcome", "invalid")
+                .register(meterRegistry);
+    }
+    
+    @Value("${jwt.stateless-auth:false}")
+    private boolean statelessAuth;
     
     @Override
     protected void doFilterInternal(
@@ -32,7 +63,6 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         
         final String authHeader = request.getHeader("Authorization");
         final String jwt;
-        final String userEmail;
         
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
             filterChain.doFilter(request, response);
@@ -40,27 +70,66 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         }
         
         jwt = authHeader.substring(7);
+        long authStart = System.nanoTime();
+        long userLoadNanos = 0;
         
         try {
-            userEmail = jwtUtil.extractUsername(jwt);
+            Claims claims = parseTimed(jwt);
+            String userEmail = claims.getSubject();
             
-            if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                UserDetails userDetails = userDetailsService.loadUserByUsername(userEmail);
+            if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null
+                    && !tokenRevocationService.isRevoked(claims.getId())) {
+                long userLoadStart = System.nanoTime();
+                UserDetails userDetails = statelessAuth
+                        ? principalFromClaims(claims)
+                        : userDetailsService.loadUserByUsername(userEmail);
+                userLoadNanos = System.nanoTime() - userLoadStart;
                 
-                if (jwtUtil.validateToken(jwt, userDetails)) {
+                if (userDetails != null && jwtUtil.validateToken(claims, userDetails)) {
                     UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                             userDetails,
                             null,
                             userDetails.getAuthorities()
                     );
-                    authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                    authToken.setDetails(authenticationDetailsSource.buildDetails(request));
                     SecurityContextHolder.getContext().setAuthentication(authToken);
                 }
             }
         } catch (Exception e) {
             // Invalid token - continue without authentication
         }
+        RequestTiming.addUserLoad(userLoadNanos);
+        RequestTiming.addAuth(System.nanoTime() - authStart - userLoadNanos);
         
         filterChain.doFilter(request, response);
     }
+    
+    private Claims parseTimed(String jwt) {
+        TokenValidationJfrEvent event = new TokenValidationJfrEvent();
+        event.begin();
+        long start = System.nanoTime();
+        try {
+            Claims claims = jwtUtil.parseToken(jwt);
+            validTokenTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            event.outcome = "valid";
+            return claims;
+        } catch (RuntimeException e) {
+            invalidTokenTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            event.outcome = "invalid";
+            throw e;
+        } finally {
+            event.commit();
+        }
+    }
+    
+    // Builds the principal from verified claims; only the in-memory token version is consulted
+    private UserDetails principalFromClaims(Claims claims) {
+        Long userId = jwtUtil.getUserId(claims);
+        String role = claims.get("role", String.class);
+        if (userId == null || role == null
+                || !tokenVersionRegistry.isCurrent(userId, jwtUtil.getTokenVersion(claims))) {
+            return null;
+        }
+        return new JwtPrincipal(userId, claims.getSubject(), role);
+    }
 }
@@ -1,30 +1,49 @@
 package com.sweetshop.security;
 
+import com.sweetshop.entity.User;
+import com.sweetshop.service.BoundedCache;
 import io.jsonwebtoken.*;
-import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 import java.util.function.Function;
 
 @Component
 public class JwtUtil {
     
-    @Value("${jwt.secret}")
-    private String secret;
+    private final long expiration;
+    private final int cacheSize;
+    private final SecretKey signingKey;
+    private final JwtParser parser;
+    private final MessageDigest digestPrototype;
     
-    @Value("${jwt.expiration}")
-    private long expiration;
+    // Claims of tokens whose signature has already been verified, keyed by SHA-256 of the token
+    private final BoundedCache<ByteBuffer, Claims> verifiedTokens;
     
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(java.util.Base64.getEncoder().encodeToString(secret.getBytes()));
-        return Keys.hmacShaKeyFor(keyBytes);
+    public JwtUtil(@Value("${jwt.secret}") String secret,
+                   @Value("${jwt.expiration}") long expiration,
+                   @Value("${jwt.cache-size:10000}") int cacheSize) {
+        this.expiration = expiration;
+        this.cacheSize = cacheSize;
+        this.verifiedTokens = new BoundedCache<>(cacheSize);
+        this.signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parser().verifyWith(signingKey).build();
+        try {
+            this.digestPrototype = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
     }
     
     public String extractUsername(String token) {
@@ -40,41 +59,86 @@ public class JwtUtil {
     }
     
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
+        final Claims claims = parseToken(token);
         return claimsResolver.apply(claims);
     }
     
-    private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+    // Verifies the token once; repeat requests with a live token skip signature verification
+    public Claims parseToken(String token) {
+        if (cacheSize <= 0) {
+            return parser.parseSignedClaims(token).getPayload();
+        }
+        
+        ByteBuffer key = hash(token);
+        Claims claims = verifiedTokens.get(key);
+        if (claims != null) {
+            return claims;
+        }
+        
+        // Cached until the token expires; the parser rejects it from then on
+        claims = parser.parseSignedClaims(token).getPayload();
+        Date expiresAt = claims.getExpiration();
+        verifiedTokens.put(key, claims, expiresAt != null ? expiresAt.getTime() : Long.MAX_VALUE);
+        return claims;
     }
     
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    public int getCachedTokenCount() {
+        return verifiedTokens.size();
     }
     
     public String generateToken(UserDetails userDetails, Long userId, String role) {
         Map<String, Object> claims = new HashMap<>();
         claims.put("userId", userId);
         claims.put("role", role);
+        if (userDetails instanceof User user) {
+            claims.put("ver", user.getTokenVersion());
+        }
         return createToken(claims, userDetails.getUsername());
     }
     
+    public Long getUserId(Claims claims) {
+        Number userId = claims.get("userId", Number.class);
+        return userId != null ? userId.longValue() : null;
+    }
+    
+    public int getTokenVersion(Claims claims) {
+        Number version = claims.get("ver", Number.class);
+        return version != null ? version.intValue() : 0;
+    }
+    
     private String createToken(Map<String, Object> claims, String subject) {
         return Jwts.builder()
                 .claims(claims)
+                .id(UUID.randomUUID().toString())
                 .subject(subject)
                 .issuedAt(new Date(System.currentTimeMillis()))
                 .expiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
     
     public Boolean validateToken(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+        return validateToken(parseToken(token), userDetails);
+    }
+    
+    public Boolean validateToken(Claims claims, UserDetails userDetails) {
+        if (userDetails instanceof User user && user.getTokenVersion() != getTokenVersion(claims)) {
+            return false;
+        }
+        return claims.getSubject().equals(userDetails.getUsername()) && !isExpired(claims);
+    }
+    
+    private boolean isExpired(Claims claims) {
+        Date expiresAt = claims.getExpiration();
+        return expiresAt != null && expiresAt.getTime() <= System.currentTimeMillis();
+    }
+    
+    private ByteBuffer hash(String token) {
+        try {
+            MessageDigest digest = (MessageDigest) digestPrototype.clone();
+            return ByteBuffer.wrap(digest.digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException(e);
+        }
     }
 }
@@ -0,0 +1,155 @@
+package com.sweetshop.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// Runs after JwtAuthFilter so authenticated clients are limited per user, everyone else per IP
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+    
+    public enum RouteGroup {
+        AUTH, CATALOG, PURCHASE, ADMIN
+    }
+    
+    private final ObjectMapper objectMapper;
+    private final Map<RouteGroup, Limit> limits = new EnumMap<>(RouteGroup.class);
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    
+    @Value("${rate-limit.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${rate-limit.trust-forwarded-for:false}")
+    private boolean trustForwardedFor;
+    
+    public RateLimitFilter(ObjectMapper objectMapper, Environment environment) {
+        this.objectMapper = objectMapper;
+        limits.put(RouteGroup.AUTH, Limit.from(environment, "auth", 10, 1));
+        limits.put(RouteGroup.CATALOG, Limit.from(environment, "catalog", 100, 50));
+        limits.put(RouteGroup.PURCHASE, Limit.from(environment, "purchase", 20, 5));
+        limits.put(RouteGroup.ADMIN, Limit.from(environment, "admin", 50, 10));
+    }
+    
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !enabled || "OPTIONS".equals(request.getMethod());
+    }
+    
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+        
+        RouteGroup group = routeGroup(request.getMethod(), request.getRequestURI());
+        if (group == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        
+        Limit limit = limits.get(group);
+        long now = System.nanoTime();
+        TokenBucket bucket = buckets.computeIfAbsent(group.name() + ":" + clientKey(request),
+                key -> new TokenBucket(limit.capacity, limit.refillPerSecond, now));
+        long result = bucket.tryConsume(now);
+        
+        response.setHeader("X-RateLimit-Limit", String.valueOf(limit.capacity));
+        if (result < 0) {
+            long retryAfter = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(-result + 999_999_999L));
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader("X-RateLimit-Remaining", "0");
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            objectMapper.writeValue(response.getWriter(), Map.of("message", "Too many requests, please retry later"));
+            return;
+        }
+        response.setHeader("X-RateLimit-Remaining", String.valueOf(result));
+        
+        filterChain.doFilter(request, response);
+    }
+    
+    public int getBucketCount() {
+        return buckets.size();
+    }
+    
+    // A refilled bucket holds no state worth keeping; a request racing the removal at worst gets one extra token
+    @Scheduled(fixedDelayString = "${rate-limit.eviction-interval-ms:60000}")
+    public void evictIdleBuckets() {
+        long now = System.nanoTime();
+        buckets.values().removeIf(bucket -> bucket.isIdle(now));
+    }
+    
+    static RouteGroup routeGroup(String method, String path) {
+        if (path.startsWith("/api/auth/")) {
+            return RouteGroup.AUTH;
+        }
+        if (path.startsWith("/api/admin/")) {
+            return RouteGroup.ADMIN;
+        }
+        if (path.startsWith("/api/async/sweets")) {
+            return RouteGroup.CATALOG;
+        }
+        if (path.startsWith("/api/stores")) {
+            return "GET".equals(method) ? RouteGroup.CATALOG : RouteGroup.ADMIN;
+        }
+        if (path.startsWith("/api/sweets")) {
+            if ("GET".equals(method)) {
+                return RouteGroup.CATALOG;
+            }
+            if (path.endsWith("/purchase")) {
+                return RouteGroup.PURCHASE;
+            }
+            return RouteGroup.ADMIN;
+        }
+        return null;
+    }
+    
+    private String clientKey(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated()
+                && !(authentication instanceof AnonymousAuthenticationToken)) {
+            return "user:" + authentication.getName();
+        }
+        
+        if (trustForwardedFor) {
+            String forwardedFor = request.getHeader("X-Forwarded-For");
+            if (forwardedFor != null && !forwardedFor.isBlank()) {
+                int comma = forwardedFor.indexOf(',');
+                return "ip:" + (comma < 0 ? forwardedFor : forwardedFor.substring(0, comma)).trim();
+            }
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+    
+    private record Limit(int capacity, double refillPerSecond) {
+        
+        static Limit from(Environment environment, String group, int capacity, double refillPerSecond) {
+            String prefix = "rate-limit." + group.toLowerCase(Locale.ROOT) + ".";
+            return new Limit(
+                    environment.getProperty(prefix + "capacity", Integer.class, capacity),
+                    environment.getProperty(prefix + "refill-per-second", Double.class, refillPerSecond));
+        }
+    }
+}
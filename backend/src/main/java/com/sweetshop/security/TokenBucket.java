@@ -0,0 +1,37 @@
+package com.sweetshop.security;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Token bucket in GCRA form: one CAS on the theoretical arrival time, no lock and no refill thread
+public class TokenBucket {
+    
+    private final long interval;
+    private final long burst;
+    private final AtomicLong arrival;
+    
+    public TokenBucket(int capacity, double refillPerSecond, long now) {
+        this.interval = (long) (1_000_000_000L / refillPerSecond);
+        this.burst = interval * capacity;
+        this.arrival = new AtomicLong(now);
+    }
+    
+    // Returns the tokens left after taking one, or the negative wait in nanos when empty
+    public long tryConsume(long now) {
+        while (true) {
+            long current = arrival.get();
+            long next = Math.max(current, now) + interval;
+            long backlog = next - now;
+            if (backlog > burst) {
+                return -(backlog - burst);
+            }
+            if (arrival.compareAndSet(current, next)) {
+                return (burst - backlog) / interval;
+            }
+        }
+    }
+    
+    // A bucket whose arrival time has passed is full again and can be recreated on demand
+    public boolean isIdle(long now) {
+        return arrival.get() <= now;
+    }
+}
@@ -0,0 +1,128 @@
+package com.sweetshop.security;
+
+import com.sweetshop.entity.RevokedToken;
+import com.sweetshop.repository.RevokedTokenRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Denylist of revoked token ids; the table is the source of truth, memory holds the live entries
+@Slf4j
+@Service
+public class TokenRevocationService {
+    
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final int expectedTokens;
+    private final double falsePositiveRate;
+    
+    // Writers (revoke, refresh) are rare and serialised; the request path only reads the two volatiles
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private volatile Map<String, LocalDateTime> revoked = new ConcurrentHashMap<>();
+    private volatile BloomFilter filter;
+    
+    public TokenRevocationService(RevokedTokenRepository revokedTokenRepository,
+                                  @Value("${token-revocation.expected-tokens:100000}") int expectedTokens,
+                                  @Value("${token-revocation.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.expectedTokens = expectedTokens;
+        this.falsePositiveRate = falsePositiveRate;
+        this.filter = new BloomFilter(expectedTokens, falsePositiveRate);
+    }
+    
+    // Most tokens are not revoked and are rejected by the filter without touching the map
+    public boolean isRevoked(String jti) {
+        return jti != null && filter.mightContain(jti) && revoked.containsKey(jti);
+    }
+    
+    public void revoke(String jti, Long userId, Date expiresAt) {
+        LocalDateTime expiry = LocalDateTime.ofInstant(expiresAt.toInstant(), ZoneId.systemDefault());
+        if (!expiry.isAfter(LocalDateTime.now())) {
+            return;
+        }
+        
+        if (!revokedTokenRepository.existsByJti(jti)) {
+            revokedTokenRepository.save(RevokedToken.builder()
+                    .jti(jti)
+                    .userId(userId)
+                    .expiresAt(expiry)
+                    .build());
+        }
+        rememberAfterCommit(jti, expiry);
+    }
+    
+    // Picks up a revocation another instance just committed, ahead of the next refresh
+    public void load(String jti) {
+        revokedTokenRepository.findByJti(jti)
+                .filter(token -> token.getExpiresAt().isAfter(LocalDateTime.now()))
+                .ifPresent(token -> remember(token.getJti(), token.getExpiresAt()));
+    }
+    
+    public int getRevokedCount() {
+        return revoked.size();
+    }
+    
+    // Drops expired rows and rebuilds the filter, which cannot forget entries on its own.
+    // Reloading from the table also picks up revocations made by other instances.
+    @Scheduled(fixedDelayString = "${token-revocation.refresh-interval-ms:60000}")
+    public void refresh() {
+        LocalDateTime now = LocalDateTime.now();
+        int purged = revokedTokenRepository.deleteExpired(now);
+        
+        writeLock.lock();
+        try {
+            List<RevokedToken> live = revokedTokenRepository.findAll();
+            Map<String, LocalDateTime> entries = new ConcurrentHashMap<>();
+            BloomFilter rebuilt = new BloomFilter(Math.max(expectedTokens, live.size() * 2), falsePositiveRate);
+            for (RevokedToken token : live) {
+                entries.put(token.getJti(), token.getExpiresAt());
+                rebuilt.put(token.getJti());
+            }
+            
+            // Publish the map first so a filter hit never lands on a map that lacks the entry
+            revoked = entries;
+            filter = rebuilt;
+        } finally {
+            writeLock.unlock();
+        }
+        
+        if (purged > 0) {
+            log.debug("Purged {} expired revoked tokens", purged);
+        }
+    }
+    
+    // A refresh that read the table before the row committed would swap out an entry added now,
+    // so it goes in once the row is visible; refresh holds the lock from its read to its swap
+    private void rememberAfterCommit(String jti, LocalDateTime expiry) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            remember(jti, expiry);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                remember(jti, expiry);
+            }
+        });
+    }
+    
+    private void remember(String jti, LocalDateTime expiry) {
+        writeLock.lock();
+        try {
+            revoked.put(jti, expiry);
+            filter.put(jti);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.sweetshop.security;
+
+import com.sweetshop.event.UserChangedEvent;
+import com.sweetshop.repository.UserRepository;
+import com.sweetshop.service.BoundedCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+// Cached copy of each user's token version; role changes and revocations bump it in the DB.
+// Bounded like the user cache, so users that are evicted or expired are read from the DB again.
+@Component
+public class TokenVersionRegistry {
+    
+    private static final int UNKNOWN_USER = -1;
+    
+    private final UserRepository userRepository;
+    private final BoundedCache<Long, Integer> versions;
+    private final long ttl;
+    private final long negativeTtl;
+    
+    public TokenVersionRegistry(UserRepository userRepository,
+                                @Value("${user-cache.max-size:10000}") int maxSize,
+                                @Value("${user-cache.ttl-ms:60000}") long ttl,
+                                @Value("${user-cache.negative-ttl-ms:10000}") long negativeTtl) {
+        this.userRepository = userRepository;
+        this.versions = new BoundedCache<>(maxSize);
+        this.ttl = ttl;
+        this.negativeTtl = negativeTtl;
+    }
+    
+    public boolean isCurrent(Long userId, int tokenVersion) {
+        Integer version = versions.get(userId);
+        if (version == null) {
+            // Taken before the read, so a version bumped meanwhile keeps this result out of the cache
+            long generation = versions.generation();
+            version = userRepository.findTokenVersionById(userId).orElse(UNKNOWN_USER);
+            versions.putIfUnchanged(userId, version, expiresAt(version), generation);
+        }
+        return version != UNKNOWN_USER && version == tokenVersion;
+    }
+    
+    public void evict(Long userId) {
+        versions.invalidate(userId);
+    }
+    
+    public int getCachedUserCount() {
+        return versions.size();
+    }
+    
+    @TransactionalEventListener
+    public void onUserChanged(UserChangedEvent event) {
+        int version = event.isRemoved() ? UNKNOWN_USER : event.getTokenVersion();
+        // Invalidated first so a load that read the old version cannot store it afterwards
+        versions.invalidate(event.getUserId());
+        versions.put(event.getUserId(), version, expiresAt(version));
+    }
+    
+    private long expiresAt(int version) {
+        return System.currentTimeMillis() + (version != UNKNOWN_USER ? ttl : negativeTtl);
+    }
+}
@@ -0,0 +1,82 @@
+package com.sweetshop.service;
+
+import com.sweetshop.dto.SweetDto;
+import com.sweetshop.dto.SweetListResponse;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutor;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+// Catalog reads on a pool no larger than the connection pool, so queued work waits here
+// instead of holding a servlet thread or blocking on Hikari
+@Service
+public class AsyncCatalogService {
+    
+    private final SweetService sweetService;
+    private final ThreadPoolExecutor executor;
+    
+    // Carries the caller's security context so read-your-writes routing sees who is reading
+    private final Executor securedExecutor;
+    
+    public AsyncCatalogService(SweetService sweetService,
+                               @Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize,
+                               @Value("${catalog-async.queue-capacity:500}") int queueCapacity) {
+        this.sweetService = sweetService;
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "catalog-db-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.securedExecutor = new DelegatingSecurityContextExecutor(executor);
+    }
+    
+    public CompletableFuture<SweetListResponse> getAllSweets(int page, int limit) {
+        return supply(() -> sweetService.getAllSweets(page, limit));
+    }
+    
+    public CompletableFuture<SweetListResponse> searchSweets(String name, String category, BigDecimal minPrice,
+                                                             BigDecimal maxPrice, int page, int limit) {
+        return supply(() -> sweetService.searchSweets(name, category, minPrice, maxPrice, page, limit));
+    }
+    
+    public CompletableFuture<SweetDto> getSweetById(Long id) {
+        return supply(() -> sweetService.getSweetById(id));
+    }
+    
+    public int getQueuedTasks() {
+        return executor.getQueue().size();
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+    
+    private <T> CompletableFuture<T> supply(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, securedExecutor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(new CatalogBusyException());
+        }
+    }
+    
+    public static class CatalogBusyException extends RuntimeException {
+        public CatalogBusyException() {
+            super("Server is busy, please retry shortly");
+        }
+    }
+}
@@ -1,14 +1,20 @@
 package com.sweetshop.service;
 
 import com.sweetshop.dto.*;
+import com.sweetshop.entity.ChangeFeedEntry;
 import com.sweetshop.entity.User;
 import com.sweetshop.repository.UserRepository;
 import com.sweetshop.security.JwtUtil;
+import com.sweetshop.security.TokenRevocationService;
+import io.jsonwebtoken.Claims;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 @RequiredArgsConstructor
@@ -18,7 +24,11 @@ public class AuthService {
     private final PasswordEncoder passwordEncoder;
     private final JwtUtil jwtUtil;
     private final AuthenticationManager authenticationManager;
+    private final CustomUserDetailsService userDetailsService;
+    private final TokenRevocationService tokenRevocationService;
+    private final ChangeFeedService changeFeedService;
     
+    @Transactional
     public AuthResponse register(RegisterRequest request) {
         if (userRepository.existsByEmail(request.getEmail())) {
             throw new RuntimeException("User with this email already exists");
@@ -37,6 +47,8 @@ public class AuthService {
                 .build();
         
         User savedUser = userRepository.save(user);
+        // Other instances may hold a negative cache entry for this email
+        changeFeedService.record(ChangeFeedEntry.EntityType.USER, savedUser.getId(), savedUser.getEmail());
         String token = jwtUtil.generateToken(savedUser, savedUser.getId(), savedUser.getRole().name().toLowerCase());
         
         return AuthResponse.builder()
@@ -47,12 +59,12 @@ public class AuthService {
     }
     
     public AuthResponse login(LoginRequest request) {
-        authenticationManager.authenticate(
+        // The authenticated principal is the user the provider already loaded, so no second lookup
+        Authentication authentication = authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(request.getEmail(), request.getPassword())
         );
         
-        User user = userRepository.findByEmail(request.getEmail())
-                .orElseThrow(() -> new RuntimeException("Invalid email or password"));
+        User user = (User) authentication.getPrincipal();
         
         String token = jwtUtil.generateToken(user, user.getId(), user.getRole().name().toLowerCase());
         
@@ -63,12 +75,67 @@ public class AuthService {
                 .build();
     }
     
+    @Transactional(readOnly = true)
     public UserDto getProfile(String email) {
-        User user = userRepository.findByEmail(email)
+        try {
+            return mapToDto(userDetailsService.getUserByEmail(email));
+        } catch (UsernameNotFoundException e) {
+            throw new RuntimeException("User not found");
+        }
+    }
+    
+    @Transactional
+    public UserDto updateRole(Long id, String role) {
+        User user = userRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("User not found"));
+        
+        User.Role newRole;
+        try {
+            newRole = User.Role.valueOf(role.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Invalid role");
+        }
+        
+        if (user.getRole() != newRole) {
+            // Bumping the version invalidates every token issued with the old role
+            user.setRole(newRole);
+            user = bumpTokenVersion(user);
+        }
         return mapToDto(user);
     }
     
+    @Transactional
+    public void logout(String token) {
+        Claims claims = jwtUtil.parseToken(token);
+        if (claims.getId() == null) {
+            throw new RuntimeException("Token cannot be revoked, please use logout-all");
+        }
+        tokenRevocationService.revoke(claims.getId(), jwtUtil.getUserId(claims), claims.getExpiration());
+        changeFeedService.record(ChangeFeedEntry.EntityType.REVOKED_TOKEN, jwtUtil.getUserId(claims), claims.getId());
+    }
+    
+    @Transactional
+    public void logoutAll(String email) {
+        User user = userRepository.findByEmail(email)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        bumpTokenVersion(user);
+    }
+    
+    @Transactional
+    public void revokeTokens(Long id) {
+        User user = userRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        bumpTokenVersion(user);
+    }
+    
+    // Every token carries the version it was issued with, so this invalidates all of them at once
+    private User bumpTokenVersion(User user) {
+        user.setTokenVersion(user.getTokenVersion() + 1);
+        User saved = userRepository.saveAndFlush(user);
+        changeFeedService.record(ChangeFeedEntry.EntityType.USER, saved.getId(), saved.getEmail());
+        return saved;
+    }
+    
     private UserDto mapToDto(User user) {
         return UserDto.builder()
                 .id(user.getId())
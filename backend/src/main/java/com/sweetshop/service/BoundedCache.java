@@ -0,0 +1,88 @@
+package com.sweetshop.service;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Size-bounded map whose entries carry their own expiry. When full, expired entries go first,
+// then an arbitrary tenth. A maximum size of 0 or less turns caching off.
+//
+// Loads that race with an invalidation use generation(): take it before reading the source and
+// pass it to putIfUnchanged, which refuses to store the value if anything was invalidated since.
+public class BoundedCache<K, V> {
+    
+    private final Map<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+    private final int maxSize;
+    
+    public BoundedCache(int maxSize) {
+        this.maxSize = maxSize;
+    }
+    
+    // Null when missing or expired
+    public V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt() <= System.currentTimeMillis()) {
+            entries.remove(key, entry);
+            return null;
+        }
+        return entry.value();
+    }
+    
+    public void put(K key, V value, long expiresAt) {
+        if (maxSize <= 0) {
+            return;
+        }
+        makeRoom();
+        entries.put(key, new Entry<>(value, expiresAt));
+    }
+    
+    public long generation() {
+        return generation.get();
+    }
+    
+    // Invalidation bumps the generation inside the same per-key compute, so a load either lands
+    // before the invalidation (and is removed by it) or sees the new generation and is dropped
+    public boolean putIfUnchanged(K key, V value, long expiresAt, long expectedGeneration) {
+        if (maxSize <= 0) {
+            return false;
+        }
+        makeRoom();
+        Entry<V> entry = new Entry<>(value, expiresAt);
+        return entries.compute(key, (k, current) -> generation.get() == expectedGeneration ? entry : current) == entry;
+    }
+    
+    public void invalidate(K key) {
+        entries.compute(key, (k, current) -> {
+            generation.incrementAndGet();
+            return null;
+        });
+    }
+    
+    public int size() {
+        return entries.size();
+    }
+    
+    private void makeRoom() {
+        if (entries.size() < maxSize) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        entries.values().removeIf(entry -> entry.expiresAt() <= now);
+        
+        // Still full of live entries: drop an arbitrary tenth
+        Iterator<K> iterator = entries.keySet().iterator();
+        int target = maxSize - Math.max(1, maxSize / 10);
+        while (entries.size() > target && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+    
+    private record Entry<V>(V value, long expiresAt) {
+    }
+}
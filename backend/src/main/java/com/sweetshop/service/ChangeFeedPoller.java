@@ -0,0 +1,228 @@
+package com.sweetshop.service;
+
+import com.sweetshop.dto.StockUpdateDto;
+import com.sweetshop.entity.ChangeFeedEntry;
+import com.sweetshop.entity.ChangeFeedOffset;
+import com.sweetshop.entity.Sweet;
+import com.sweetshop.repository.ChangeFeedOffsetRepository;
+import com.sweetshop.repository.ChangeFeedRepository;
+import com.sweetshop.repository.SweetRepository;
+import com.sweetshop.security.TokenRevocationService;
+import com.sweetshop.security.TokenVersionRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Applies changes committed by other instances to this instance's caches and stock stream.
+// Sequence numbers can commit out of order, so a gap is held open for a while before it is
+// treated as a rolled back insert and skipped.
+@Slf4j
+@Service
+public class ChangeFeedPoller {
+    
+    private final ChangeFeedService changeFeedService;
+    private final ChangeFeedRepository changeFeedRepository;
+    private final ChangeFeedOffsetRepository offsetRepository;
+    private final SweetRepository sweetRepository;
+    private final SweetService sweetService;
+    private final StockStreamService stockStreamService;
+    private final CustomUserDetailsService userDetailsService;
+    private final TokenRevocationService tokenRevocationService;
+    private final TokenVersionRegistry tokenVersionRegistry;
+    private final StockLeaseService stockLeaseService;
+    private final StockAlertService stockAlertService;
+    
+    @Value("${change-feed.batch-size:500}")
+    private int batchSize;
+    
+    @Value("${change-feed.gap-timeout-ms:10000}")
+    private long gapTimeout;
+    
+    @Value("${change-feed.node-timeout-ms:300000}")
+    private long nodeTimeout;
+    
+    // Every sequence number up to position has been applied or skipped
+    private volatile long position = -1;
+    private final NavigableSet<Long> appliedAhead = new TreeSet<>();
+    private long gapSeenAt;
+    // Not synchronized: a poll does JDBC work, which would pin a virtual thread's carrier
+    private final ReentrantLock pollLock = new ReentrantLock();
+    
+    private volatile long lagMillis;
+    private volatile long appliedCount;
+    
+    public ChangeFeedPoller(ChangeFeedService changeFeedService,
+                            ChangeFeedRepository changeFeedRepository,
+                            ChangeFeedOffsetRepository offsetRepository,
+                            SweetRepository sweetRepository,
+                            SweetService sweetService,
+                            StockStreamService stockStreamService,
+                            CustomUserDetailsService userDetailsService,
+                            TokenRevocationService tokenRevocationService,
+                            TokenVersionRegistry tokenVersionRegistry,
+                            StockLeaseService stockLeaseService,
+                            StockAlertService stockAlertService) {
+        this.changeFeedService = changeFeedService;
+        this.changeFeedRepository = changeFeedRepository;
+        this.offsetRepository = offsetRepository;
+        this.sweetRepository = sweetRepository;
+        this.sweetService = sweetService;
+        this.stockStreamService = stockStreamService;
+        this.userDetailsService = userDetailsService;
+        this.tokenRevocationService = tokenRevocationService;
+        this.tokenVersionRegistry = tokenVersionRegistry;
+        this.stockLeaseService = stockLeaseService;
+        this.stockAlertService = stockAlertService;
+    }
+    
+    @Scheduled(fixedDelayString = "${change-feed.poll-interval-ms:500}")
+    public void poll() {
+        if (!changeFeedService.isEnabled()) {
+            return;
+        }
+        pollLock.lock();
+        try {
+            if (position < 0) {
+                // Caches start empty, so there is nothing older to catch up on
+                position = changeFeedRepository.findMaxSeq();
+            }
+            
+            List<ChangeFeedEntry> batch;
+            do {
+                batch = changeFeedRepository.findBySeqGreaterThanOrderBySeqAsc(position, PageRequest.of(0, batchSize));
+                List<ChangeFeedEntry> fresh = batch.stream()
+                        .filter(entry -> !appliedAhead.contains(entry.getSeq()))
+                        .toList();
+                apply(fresh);
+                fresh.forEach(entry -> appliedAhead.add(entry.getSeq()));
+            } while (advance() && batch.size() == batchSize);
+        } finally {
+            pollLock.unlock();
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${change-feed.compaction-interval-ms:60000}")
+    public void compact() {
+        if (!changeFeedService.isEnabled() || position < 0) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        offsetRepository.save(ChangeFeedOffset.builder()
+                .nodeId(changeFeedService.getNodeId())
+                .seq(position)
+                .updatedAt(now)
+                .build());
+        
+        // Instances that stopped reporting are ignored; if they come back they start from the end
+        LocalDateTime liveSince = now.minus(Duration.ofMillis(nodeTimeout));
+        offsetRepository.deleteStale(liveSince);
+        Long acknowledged = offsetRepository.findMinSeqSince(liveSince);
+        if (acknowledged != null && acknowledged > 0) {
+            int removed = changeFeedRepository.deleteUpTo(acknowledged);
+            if (removed > 0) {
+                log.debug("Compacted {} change feed rows up to {}", removed, acknowledged);
+            }
+        }
+    }
+    
+    public long getPosition() {
+        return position;
+    }
+    
+    // Time between a remote commit and this instance applying it, for the latest applied change
+    public long getLagMillis() {
+        return lagMillis;
+    }
+    
+    public long getAppliedCount() {
+        return appliedCount;
+    }
+    
+    private void apply(List<ChangeFeedEntry> entries) {
+        String self = changeFeedService.getNodeId();
+        Set<Long> sweetIds = new LinkedHashSet<>();
+        LocalDateTime newest = null;
+        
+        for (ChangeFeedEntry entry : entries) {
+            if (self.equals(entry.getNodeId())) {
+                continue;
+            }
+            switch (entry.getEntityType()) {
+                case SWEET -> sweetIds.add(entry.getEntityId());
+                case USER -> {
+                    userDetailsService.invalidate(entry.getEntityKey());
+                    tokenVersionRegistry.evict(entry.getEntityId());
+                }
+                case REVOKED_TOKEN -> tokenRevocationService.load(entry.getEntityKey());
+                case STOCK_THRESHOLD -> stockAlertService.reloadThreshold(entry.getEntityId(), entry.getEntityKey());
+            }
+            newest = entry.getCreatedAt();
+            appliedCount++;
+        }
+        
+        if (!sweetIds.isEmpty()) {
+            Map<Long, Sweet> sweets = sweetRepository.findAllById(sweetIds).stream()
+                    .collect(Collectors.toMap(Sweet::getId, Function.identity()));
+            Map<Long, Integer> leased = stockLeaseService.leasedUnits(sweetIds);
+            for (Long id : sweetIds) {
+                sweetService.forgetReads(id);
+                Sweet sweet = sweets.get(id);
+                stockStreamService.publish(sweet != null
+                        ? StockUpdateDto.builder()
+                                .id(id)
+                                .quantity(sweet.getQuantity() + leased.getOrDefault(id, 0))
+                                .price(sweet.getPrice())
+                                .updatedAt(sweet.getUpdatedAt())
+                                .build()
+                        : StockUpdateDto.builder()
+                                .id(id)
+                                .quantity(0)
+                                .updatedAt(LocalDateTime.now())
+                                .deleted(true)
+                                .build());
+            }
+        }
+        
+        if (newest != null) {
+            lagMillis = Math.max(0, Duration.between(newest, LocalDateTime.now()).toMillis());
+        }
+    }
+    
+    // Moves position over applied sequence numbers; returns false while waiting on a gap
+    private boolean advance() {
+        while (!appliedAhead.isEmpty() && appliedAhead.first() == position + 1) {
+            position = appliedAhead.pollFirst();
+        }
+        if (appliedAhead.isEmpty()) {
+            gapSeenAt = 0;
+            return true;
+        }
+        
+        long now = System.currentTimeMillis();
+        if (gapSeenAt == 0) {
+            gapSeenAt = now;
+            return false;
+        }
+        if (now - gapSeenAt < gapTimeout) {
+            return false;
+        }
+        log.debug("Skipping change feed gap {}..{}", position + 1, appliedAhead.first() - 1);
+        position = appliedAhead.first() - 1;
+        gapSeenAt = 0;
+        return advance();
+    }
+}
@@ -0,0 +1,49 @@
+package com.sweetshop.service;
+
+import com.sweetshop.entity.ChangeFeedEntry;
+import com.sweetshop.repository.ChangeFeedRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.UUID;
+
+// Writes change rows inside the caller's transaction, so a change is visible to other
+// instances exactly when the data it describes is
+@Service
+public class ChangeFeedService {
+    
+    private final ChangeFeedRepository changeFeedRepository;
+    private final boolean enabled;
+    private final String nodeId;
+    
+    public ChangeFeedService(ChangeFeedRepository changeFeedRepository,
+                             @Value("${change-feed.enabled:true}") boolean enabled,
+                             @Value("${change-feed.node-id:}") String nodeId) {
+        this.changeFeedRepository = changeFeedRepository;
+        this.enabled = enabled;
+        this.nodeId = nodeId.isBlank() ? UUID.randomUUID().toString() : nodeId;
+    }
+    
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(ChangeFeedEntry.EntityType type, Long entityId, String entityKey) {
+        if (!enabled) {
+            return;
+        }
+        changeFeedRepository.save(ChangeFeedEntry.builder()
+                .entityType(type)
+                .entityId(entityId)
+                .entityKey(entityKey)
+                .nodeId(nodeId)
+                .build());
+    }
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    public String getNodeId() {
+        return nodeId;
+    }
+}
@@ -1,27 +1,77 @@
 package com.sweetshop.service;
 
 import com.sweetshop.entity.User;
+import com.sweetshop.event.UserChangedEvent;
 import com.sweetshop.repository.UserRepository;
-import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Locale;
+import java.util.Optional;
 
 @Service
-@RequiredArgsConstructor
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
     
     private final UserRepository userRepository;
     
+    // Lookups by email; an empty Optional marks an email that is known not to exist
+    private final BoundedCache<String, Optional<User>> cache;
+    private final long ttl;
+    private final long negativeTtl;
+    
+    public CustomUserDetailsService(UserRepository userRepository,
+                                    @Value("${user-cache.max-size:10000}") int maxSize,
+                                    @Value("${user-cache.ttl-ms:60000}") long ttl,
+                                    @Value("${user-cache.negative-ttl-ms:10000}") long negativeTtl) {
+        this.userRepository = userRepository;
+        this.cache = new BoundedCache<>(maxSize);
+        this.ttl = ttl;
+        this.negativeTtl = negativeTtl;
+    }
+    
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-        return userRepository.findByEmail(email)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + email));
+        return getUserByEmail(email);
     }
     
     public User getUserByEmail(String email) {
-        return userRepository.findByEmail(email)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + email));
+        String key = email.toLowerCase(Locale.ROOT);
+        
+        Optional<User> user = cache.get(key);
+        if (user == null) {
+            // Taken before the read, so a change committed meanwhile keeps this result out of the cache
+            long generation = cache.generation();
+            user = userRepository.findByEmail(email);
+            long expiresAt = System.currentTimeMillis() + (user.isPresent() ? ttl : negativeTtl);
+            cache.putIfUnchanged(key, user, expiresAt, generation);
+        }
+        
+        return user.orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + email));
+    }
+    
+    @Override
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        User user = userRepository.findByEmail(userDetails.getUsername())
+                .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + userDetails.getUsername()));
+        user.setPassword(newPassword);
+        return userRepository.save(user);
+    }
+    
+    public int getCachedUserCount() {
+        return cache.size();
+    }
+    
+    public void invalidate(String email) {
+        cache.invalidate(email.toLowerCase(Locale.ROOT));
+    }
+    
+    @TransactionalEventListener
+    public void onUserChanged(UserChangedEvent event) {
+        invalidate(event.getEmail());
     }
 }
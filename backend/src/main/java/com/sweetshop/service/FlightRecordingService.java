@@ -0,0 +1,131 @@
+package com.sweetshop.service;
+
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+// One on-demand JFR recording at a time; it stops itself after the maximum duration if nobody collects it.
+// The lock only guards the current recording: a dump can take seconds and runs after stop() has taken it over.
+@Slf4j
+@Service
+public class FlightRecordingService {
+    
+    private final Duration maxDuration;
+    private final long maxSizeBytes;
+    private final ReentrantLock lock = new ReentrantLock();
+    private Recording recording;
+    
+    public FlightRecordingService(@Value("${jfr.max-duration-seconds:600}") long maxDurationSeconds,
+                                  @Value("${jfr.max-size-mb:256}") long maxSizeMb) {
+        this.maxDuration = Duration.ofSeconds(maxDurationSeconds);
+        this.maxSizeBytes = maxSizeMb * 1024 * 1024;
+    }
+    
+    // settings names a JDK configuration: "default" (about 1% overhead) or "profile" (more detail, about 2%)
+    public Map<String, Object> start(String settings, Long durationSeconds) {
+        Configuration configuration;
+        try {
+            configuration = Configuration.getConfiguration(settings);
+        } catch (IOException | ParseException e) {
+            throw new IllegalArgumentException("Unknown JFR settings: " + settings);
+        }
+        
+        lock.lock();
+        try {
+            if (recording != null && recording.getState() == RecordingState.RUNNING) {
+                throw new IllegalStateException("A recording is already running");
+            }
+            discard();
+            
+            Duration duration = durationSeconds != null && durationSeconds > 0
+                    ? Duration.ofSeconds(Math.min(durationSeconds, maxDuration.toSeconds()))
+                    : maxDuration;
+            Recording started = new Recording(configuration);
+            started.setName("sweetshop-" + Instant.now().getEpochSecond());
+            started.setDuration(duration);
+            started.setMaxSize(maxSizeBytes);
+            started.setToDisk(true);
+            started.start();
+            recording = started;
+            log.info("Started JFR recording {} with settings {} for up to {}s", started.getName(), settings, duration.toSeconds());
+            return status();
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    // Stops the recording if still running and dumps it to a temporary file the caller must delete
+    public Path stop() throws IOException {
+        Recording stopped;
+        lock.lock();
+        try {
+            if (recording == null || recording.getState() == RecordingState.NEW) {
+                throw new IllegalStateException("No recording to stop");
+            }
+            stopped = recording;
+            recording = null;
+            if (stopped.getState() == RecordingState.RUNNING) {
+                stopped.stop();
+            }
+        } finally {
+            lock.unlock();
+        }
+        
+        try (stopped) {
+            Path file = Files.createTempFile(stopped.getName(), ".jfr");
+            try {
+                stopped.dump(file);
+            } catch (IOException e) {
+                Files.deleteIfExists(file);
+                throw e;
+            }
+            return file;
+        }
+    }
+    
+    public Map<String, Object> status() {
+        lock.lock();
+        try {
+            Map<String, Object> status = new LinkedHashMap<>();
+            if (recording == null) {
+                status.put("state", "NONE");
+                return status;
+            }
+            status.put("name", recording.getName());
+            status.put("state", recording.getState().name());
+            status.put("startTime", recording.getStartTime() != null ? recording.getStartTime().toString() : null);
+            status.put("maxDurationSeconds", recording.getDuration() != null ? recording.getDuration().toSeconds() : null);
+            status.put("sizeBytes", recording.getSize());
+            return status;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    @PreDestroy
+    public void discard() {
+        lock.lock();
+        try {
+            if (recording != null) {
+                recording.close();
+                recording = null;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+}
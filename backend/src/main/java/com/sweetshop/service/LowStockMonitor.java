@@ -0,0 +1,26 @@
+package com.sweetshop.service;
+
+import com.sweetshop.event.StockChangedEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+@Component
+@RequiredArgsConstructor
+public class LowStockMonitor {
+    
+    private final StockAlertService stockAlertService;
+    
+    // Only a downward crossing raises an alert; restocking above the threshold re-arms it
+    @TransactionalEventListener
+    public void onStockChanged(StockChangedEvent event) {
+        if (event.isDeleted() || event.getPreviousQuantity() == null) {
+            return;
+        }
+        
+        int threshold = stockAlertService.getThreshold(event.getSweetId(), event.getCategory());
+        if (event.getPreviousQuantity() > threshold && event.getQuantity() <= threshold) {
+            stockAlertService.raiseAlert(event, threshold);
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.sweetshop.service;
+
+import com.sweetshop.dto.*;
+import com.sweetshop.entity.ChangeFeedEntry;
+import com.sweetshop.entity.StockAlert;
+import com.sweetshop.entity.StockThreshold;
+import com.sweetshop.entity.Sweet;
+import com.sweetshop.event.StockChangedEvent;
+import com.sweetshop.repository.StockAlertRepository;
+import com.sweetshop.repository.StockThresholdRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class StockAlertService {
+    
+    private final StockAlertRepository stockAlertRepository;
+    private final StockThresholdRepository stockThresholdRepository;
+    private final ChangeFeedService changeFeedService;
+    
+    // Thresholds are held in memory so the purchase path never queries them; other instances'
+    // changes arrive through the change feed
+    private final Map<Long, Integer> sweetThresholds = new ConcurrentHashMap<>();
+    private final Map<Sweet.Category, Integer> categoryThresholds = new ConcurrentHashMap<>();
+    
+    @Value("${low-stock.default-threshold:5}")
+    private int defaultThreshold;
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadThresholds() {
+        sweetThresholds.clear();
+        categoryThresholds.clear();
+        stockThresholdRepository.findAll().forEach(this::cacheThreshold);
+    }
+    
+    // Re-reads one threshold after another instance changed it: by sweet id, or by category name
+    public void reloadThreshold(Long sweetId, String category) {
+        if (sweetId != null) {
+            stockThresholdRepository.findBySweetId(sweetId).ifPresentOrElse(this::cacheThreshold,
+                    () -> sweetThresholds.remove(sweetId));
+        } else if (category != null) {
+            Sweet.Category parsed = Sweet.Category.valueOf(category);
+            stockThresholdRepository.findByCategory(parsed).ifPresentOrElse(this::cacheThreshold,
+                    () -> categoryThresholds.remove(parsed));
+        }
+    }
+    
+    public int getThreshold(Long sweetId, Sweet.Category category) {
+        Integer threshold = sweetThresholds.get(sweetId);
+        if (threshold == null && category != null) {
+            threshold = categoryThresholds.get(category);
+        }
+        return threshold != null ? threshold : defaultThreshold;
+    }
+    
+    public List<StockThresholdDto> getThresholds() {
+        return stockThresholdRepository.findAll().stream()
+                .map(StockThresholdDto::fromEntity)
+                .collect(Collectors.toList());
+    }
+    
+    @Transactional
+    public StockThresholdDto saveThreshold(StockThresholdRequest request) {
+        if ((request.getSweetId() == null) == (request.getCategory() == null)) {
+            throw new RuntimeException("Provide either a sweetId or a category");
+        }
+        
+        StockThreshold threshold = (request.getSweetId() != null
+                ? stockThresholdRepository.findBySweetId(request.getSweetId())
+                : stockThresholdRepository.findByCategory(request.getCategory()))
+                .orElseGet(() -> StockThreshold.builder()
+                        .sweetId(request.getSweetId())
+                        .category(request.getCategory())
+                        .build());
+        threshold.setThreshold(request.getThreshold());
+        
+        StockThreshold savedThreshold = stockThresholdRepository.save(threshold);
+        cacheThreshold(savedThreshold);
+        recordChange(savedThreshold);
+        return StockThresholdDto.fromEntity(savedThreshold);
+    }
+    
+    @Transactional
+    public void deleteThreshold(Long id) {
+        StockThreshold threshold = stockThresholdRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Threshold not found"));
+        stockThresholdRepository.delete(threshold);
+        if (threshold.getSweetId() != null) {
+            sweetThresholds.remove(threshold.getSweetId());
+        } else {
+            categoryThresholds.remove(threshold.getCategory());
+        }
+        recordChange(threshold);
+    }
+    
+    @Async
+    public void raiseAlert(StockChangedEvent event, int threshold) {
+        StockAlert alert = StockAlert.builder()
+                .sweetId(event.getSweetId())
+                .sweetName(event.getName())
+                .quantity(event.getQuantity())
+                .threshold(threshold)
+                .build();
+        stockAlertRepository.save(alert);
+    }
+    
+    public StockAlertListResponse getAlerts(Boolean acknowledged, int page, int limit) {
+        Pageable pageable = PageRequest.of(page - 1, limit, Sort.by("createdAt").descending());
+        Page<StockAlert> alertPage = acknowledged != null
+                ? stockAlertRepository.findByAcknowledged(acknowledged, pageable)
+                : stockAlertRepository.findAll(pageable);
+        
+        PaginationDto pagination = PaginationDto.builder()
+                .page(page)
+                .limit(limit)
+                .total(alertPage.getTotalElements())
+                .pages(alertPage.getTotalPages())
+                .build();
+        
+        return StockAlertListResponse.builder()
+                .alerts(alertPage.getContent().stream()
+                        .map(StockAlertDto::fromEntity)
+                        .collect(Collectors.toList()))
+                .pagination(pagination)
+                .build();
+    }
+    
+    @Transactional
+    public StockAlertDto acknowledge(Long id, String acknowledgedBy) {
+        StockAlert alert = stockAlertRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Alert not found"));
+        
+        if (!alert.getAcknowledged()) {
+            alert.setAcknowledged(true);
+            alert.setAcknowledgedBy(acknowledgedBy);
+            alert.setAcknowledgedAt(LocalDateTime.now());
+        }
+        return StockAlertDto.fromEntity(stockAlertRepository.save(alert));
+    }
+    
+    private void recordChange(StockThreshold threshold) {
+        changeFeedService.record(ChangeFeedEntry.EntityType.STOCK_THRESHOLD, threshold.getSweetId(),
+                threshold.getCategory() != null ? threshold.getCategory().name() : null);
+    }
+    
+    private void cacheThreshold(StockThreshold threshold) {
+        if (threshold.getSweetId() != null) {
+            sweetThresholds.put(threshold.getSweetId(), threshold.getThreshold());
+        } else if (threshold.getCategory() != null) {
+            categoryThresholds.put(threshold.getCategory(), threshold.getThreshold());
+        }
+    }
+}
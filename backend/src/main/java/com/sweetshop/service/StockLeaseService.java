@@ -0,0 +1,431 @@
+package com.sweetshop.service;
+
+import com.sweetshop.dto.PurchaseResponse;
+import com.sweetshop.dto.SweetDto;
+import com.sweetshop.entity.ChangeFeedEntry;
+import com.sweetshop.entity.StockLease;
+import com.sweetshop.entity.Sweet;
+import com.sweetshop.event.LockWait;
+import com.sweetshop.event.StockChangedEvent;
+import com.sweetshop.repository.StockLeaseRepository;
+import com.sweetshop.repository.SweetRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Stock leasing: each instance moves a block of a sweet's quantity into a lease row and sells
+// from a local counter, so purchases only reach the sweets row when a lease runs out.
+// Unsold units go back on idle, on shutdown, or through another instance once the lease expires.
+//
+// Every write to a lease row happens under its sweet's row lock, and an instance stops selling
+// once its own lease could have expired. The row id serves as the lease's generation: when an
+// instance finds its row gone, another instance reclaimed it, and the settle accounts for that.
+@Slf4j
+@Service
+public class StockLeaseService {
+    
+    private final SweetRepository sweetRepository;
+    private final StockLeaseRepository stockLeaseRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ChangeFeedService changeFeedService;
+    private final Map<Long, Lease> leases = new ConcurrentHashMap<>();
+    
+    private final boolean enabled;
+    private final int blockSize;
+    private final long leaseTtl;
+    private final long idleReturn;
+    
+    public StockLeaseService(SweetRepository sweetRepository,
+                             StockLeaseRepository stockLeaseRepository,
+                             TransactionTemplate transactionTemplate,
+                             ApplicationEventPublisher eventPublisher,
+                             ChangeFeedService changeFeedService,
+                             @Value("${stock-leasing.enabled:false}") boolean enabled,
+                             @Value("${stock-leasing.block-size:50}") int blockSize,
+                             @Value("${stock-leasing.lease-ttl-ms:30000}") long leaseTtl,
+                             @Value("${stock-leasing.idle-return-ms:60000}") long idleReturn) {
+        this.sweetRepository = sweetRepository;
+        this.stockLeaseRepository = stockLeaseRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.changeFeedService = changeFeedService;
+        this.enabled = enabled;
+        this.blockSize = blockSize;
+        this.leaseTtl = leaseTtl;
+        this.idleReturn = idleReturn;
+    }
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    public PurchaseResponse purchase(Long sweetId, int quantity) {
+        if (quantity < 1) {
+            throw new RuntimeException("Quantity must be at least 1");
+        }
+        
+        while (true) {
+            Lease lease = leases.computeIfAbsent(sweetId, Lease::new);
+            if (lease.tryTake(quantity)) {
+                SweetDto sweet = lease.snapshot.toBuilder().quantity(lease.reportedQuantity()).build();
+                return PurchaseResponse.builder()
+                        .message("Purchase successful")
+                        .sweet(sweet)
+                        .purchased(quantity)
+                        .build();
+            }
+            // Throws when the database cannot cover the shortfall either
+            renew(lease, quantity);
+        }
+    }
+    
+    // Units held in leases per sweet: this instance's live counters plus other instances' last flush
+    public Map<Long, Integer> leasedUnits(Collection<Long> sweetIds) {
+        if (!enabled || sweetIds.isEmpty()) {
+            return Map.of();
+        }
+        Map<Long, Integer> units = new HashMap<>();
+        for (StockLeaseRepository.LeasedUnits row : stockLeaseRepository.sumUnitsHeldByOthers(sweetIds, changeFeedService.getNodeId())) {
+            units.put(row.getSweetId(), row.getUnits().intValue());
+        }
+        for (Long sweetId : sweetIds) {
+            Lease lease = leases.get(sweetId);
+            if (lease != null) {
+                units.merge(sweetId, lease.remaining.get(), Integer::sum);
+            }
+        }
+        return units;
+    }
+    
+    public int leasedUnits(Long sweetId) {
+        return leasedUnits(List.of(sweetId)).getOrDefault(sweetId, 0);
+    }
+    
+    // Called inside the delete transaction; the local counter goes once it commits
+    public void discard(Long sweetId) {
+        if (enabled) {
+            stockLeaseRepository.deleteBySweetId(sweetId);
+        }
+    }
+    
+    @TransactionalEventListener
+    public void onStockChanged(StockChangedEvent event) {
+        if (event.isDeleted()) {
+            Lease lease = leases.remove(event.getSweetId());
+            if (lease != null) {
+                lease.lock.lock();
+                try {
+                    lease.retired = true;
+                    lease.remaining.set(0);
+                } finally {
+                    lease.lock.unlock();
+                }
+            }
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${stock-leasing.flush-interval-ms:1000}")
+    public void flush() {
+        if (!enabled) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        for (Lease lease : leases.values()) {
+            lease.lock.lock();
+            try {
+                if (lease.retired) {
+                    continue;
+                }
+                if (now - lease.lastTakenAt >= idleReturn) {
+                    returnLease(lease);
+                } else if (lease.remaining.get() != lease.flushedUnits || now - lease.renewedAt >= leaseTtl / 3) {
+                    flushLease(lease, now);
+                }
+            } catch (RuntimeException e) {
+                log.warn("Could not flush stock lease for sweet {}: {}", lease.sweetId, e.toString());
+            } finally {
+                lease.lock.unlock();
+            }
+        }
+    }
+    
+    // Returns the units of leases whose holder stopped renewing them
+    @Scheduled(fixedDelayString = "${stock-leasing.lease-ttl-ms:30000}")
+    public void reclaimExpired() {
+        if (!enabled) {
+            return;
+        }
+        for (StockLease expired : stockLeaseRepository.findByExpiresAtBefore(LocalDateTime.now())) {
+            // Own rows only expire here when left behind by an earlier run with the same node id
+            if (expired.getNodeId().equals(changeFeedService.getNodeId()) && leases.containsKey(expired.getSweetId())) {
+                continue;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    Sweet sweet = sweetRepository.findByIdForUpdate(expired.getSweetId()).orElse(null);
+                    // Re-read under the sweet's lock: another instance may have reclaimed or renewed it
+                    StockLease lease = stockLeaseRepository.findById(expired.getId()).orElse(null);
+                    if (lease == null || lease.getExpiresAt().isAfter(LocalDateTime.now())) {
+                        return;
+                    }
+                    if (sweet != null) {
+                        sweet.setQuantity(sweet.getQuantity() + lease.getUnits());
+                    }
+                    stockLeaseRepository.delete(lease);
+                });
+            } catch (RuntimeException e) {
+                log.warn("Could not reclaim stock lease {}: {}", expired.getId(), e.toString());
+            }
+        }
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        if (!enabled) {
+            return;
+        }
+        for (Lease lease : leases.values()) {
+            lease.lock.lock();
+            try {
+                if (!lease.retired) {
+                    returnLease(lease);
+                }
+            } catch (RuntimeException e) {
+                log.warn("Could not return stock lease for sweet {}: {}", lease.sweetId, e.toString());
+            } finally {
+                lease.lock.unlock();
+            }
+        }
+    }
+    
+    private void renew(Lease lease, int needed) {
+        // A lock rather than synchronized: the renewal waits on JDBC, which would pin a virtual thread's carrier
+        LockWait.lock(lease.lock);
+        try {
+            if (lease.retired || (lease.remaining.get() >= needed && !lease.expired())) {
+                return;
+            }
+            
+            long startedAt = System.currentTimeMillis();
+            Renewal renewal = transactionTemplate.execute(status -> {
+                Sweet sweet = LockWait.timed(() -> sweetRepository.findByIdForUpdate(lease.sweetId)).orElse(null);
+                if (sweet == null) {
+                    return null;
+                }
+                int remaining = lease.remaining.get();
+                StockLease row = currentRow(lease);
+                int dropped = 0;
+                if (row == null && lease.rowId != null) {
+                    settleReclaimed(sweet, lease, remaining);
+                    dropped = remaining;
+                    remaining = 0;
+                }
+                if (row == null) {
+                    // A row left behind by an earlier run with the same node id goes back before it is reused
+                    row = stockLeaseRepository.findBySweetIdAndNodeId(lease.sweetId, changeFeedService.getNodeId())
+                            .orElseGet(() -> StockLease.builder()
+                                    .sweetId(lease.sweetId)
+                                    .nodeId(changeFeedService.getNodeId())
+                                    .units(0)
+                                    .build());
+                    sweet.setQuantity(sweet.getQuantity() + row.getUnits());
+                }
+                
+                int take = remaining >= needed ? 0 : Math.min(sweet.getQuantity(), Math.max(blockSize, needed - remaining));
+                sweet.setQuantity(sweet.getQuantity() - take);
+                row.setUnits(remaining + take);
+                row.setExpiresAt(LocalDateTime.now().plus(Duration.ofMillis(leaseTtl)));
+                row = stockLeaseRepository.save(row);
+                
+                lease.refresh(sweet, heldByOthers(lease.sweetId));
+                return new Renewal(row.getId(), take, dropped, row.getUnits());
+            });
+            
+            if (renewal == null) {
+                lease.retired = true;
+                leases.remove(lease.sweetId, lease);
+                throw new RuntimeException("Sweet not found");
+            }
+            // Only counted once the units are committed out of sweets.quantity
+            lease.remaining.addAndGet(renewal.taken() - renewal.dropped());
+            lease.rowId = renewal.rowId();
+            lease.flushedUnits = renewal.units();
+            lease.lastReported = lease.reportedQuantity();
+            lease.renewedAt = startedAt;
+            lease.expiresAt = startedAt + leaseTtl;
+            
+            if (lease.remaining.get() < needed) {
+                throw new SweetService.InsufficientStockException("Insufficient stock", lease.reportedQuantity());
+            }
+        } finally {
+            lease.lock.unlock();
+        }
+    }
+    
+    private void flushLease(Lease lease, long now) {
+        int units = lease.remaining.get();
+        boolean sold = units != lease.flushedUnits;
+        int previous = lease.lastReported;
+        
+        boolean live = Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            // Under the sweet's lock, like reclaimExpired, so a reclaim cannot slip in between the read and the write
+            Sweet sweet = sweetRepository.findByIdForUpdate(lease.sweetId).orElse(null);
+            StockLease row = currentRow(lease);
+            if (sweet == null || lease.rowId == null) {
+                return false;
+            }
+            if (row == null) {
+                // Reclaimed after this instance stalled past the expiry
+                settleReclaimed(sweet, lease, units);
+                if (sold) {
+                    changeFeedService.record(ChangeFeedEntry.EntityType.SWEET, sweet.getId(), null);
+                }
+                return false;
+            }
+            row.setUnits(units);
+            row.setExpiresAt(LocalDateTime.now().plus(Duration.ofMillis(leaseTtl)));
+            stockLeaseRepository.save(row);
+            lease.refresh(sweet, heldByOthers(lease.sweetId));
+            
+            if (sold) {
+                // Local sales publish nothing on their own, so subscribers and alerts hear about them here
+                eventPublisher.publishEvent(new StockChangedEvent(sweet.getId(), sweet.getName(), sweet.getCategory(),
+                        previous, lease.reportedQuantity(), sweet.getPrice(), sweet.getUpdatedAt(), false));
+                changeFeedService.record(ChangeFeedEntry.EntityType.SWEET, sweet.getId(), null);
+            }
+            return true;
+        }));
+        
+        if (!live) {
+            lease.retired = true;
+            lease.remaining.set(0);
+            leases.remove(lease.sweetId, lease);
+            return;
+        }
+        lease.flushedUnits = units;
+        lease.renewedAt = now;
+        lease.expiresAt = now + leaseTtl;
+    }
+    
+    private void returnLease(Lease lease) {
+        lease.retired = true;
+        leases.remove(lease.sweetId, lease);
+        int units = lease.remaining.getAndSet(0);
+        
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Sweet sweet = sweetRepository.findByIdForUpdate(lease.sweetId).orElse(null);
+                StockLease row = currentRow(lease);
+                if (row != null) {
+                    if (sweet != null) {
+                        sweet.setQuantity(sweet.getQuantity() + units);
+                    }
+                    stockLeaseRepository.delete(row);
+                } else if (sweet != null && lease.rowId != null) {
+                    // Reclaimed already: the unsold units went back with it, the sold ones come off now
+                    settleReclaimed(sweet, lease, units);
+                }
+                if (units != lease.flushedUnits) {
+                    changeFeedService.record(ChangeFeedEntry.EntityType.SWEET, lease.sweetId, null);
+                }
+            });
+        } catch (RuntimeException e) {
+            // Keep selling from the lease; the next flush tries again
+            lease.remaining.addAndGet(units);
+            lease.retired = false;
+            leases.putIfAbsent(lease.sweetId, lease);
+            throw e;
+        }
+    }
+    
+    // The row this instance last wrote for the lease; null if there is none yet or another instance reclaimed it
+    private StockLease currentRow(Lease lease) {
+        return lease.rowId == null ? null : stockLeaseRepository.findById(lease.rowId).orElse(null);
+    }
+    
+    // A reclaim put back the units the row held at this instance's last flush. Anything sold from
+    // the lease since then went back with them, so it comes off the sweet here rather than being sold twice.
+    private void settleReclaimed(Sweet sweet, Lease lease, int unsold) {
+        int soldSinceFlush = lease.flushedUnits - unsold;
+        if (soldSinceFlush <= 0) {
+            return;
+        }
+        if (sweet.getQuantity() < soldSinceFlush) {
+            log.warn("Sweet {} oversold by {} units while its lease was reclaimed", lease.sweetId,
+                    soldSinceFlush - sweet.getQuantity());
+        }
+        sweet.setQuantity(Math.max(0, sweet.getQuantity() - soldSinceFlush));
+    }
+    
+    private int heldByOthers(Long sweetId) {
+        return stockLeaseRepository.sumUnitsHeldByOthers(List.of(sweetId), changeFeedService.getNodeId()).stream()
+                .mapToInt(row -> row.getUnits().intValue())
+                .sum();
+    }
+    
+    private record Renewal(Long rowId, int taken, int dropped, int units) {
+    }
+    
+    private static class Lease {
+        private final Long sweetId;
+        // Serialises renew, flush and return; sales only touch the atomic counter
+        private final ReentrantLock lock = new ReentrantLock();
+        private final AtomicInteger remaining = new AtomicInteger();
+        private volatile Long rowId;
+        private volatile SweetDto snapshot;
+        private volatile int heldByOthers;
+        private volatile int lastReported;
+        private volatile int flushedUnits;
+        private volatile long renewedAt;
+        // Local deadline, set before the row's expiry is written, so sales stop before another instance may reclaim
+        private volatile long expiresAt;
+        private volatile long lastTakenAt = System.currentTimeMillis();
+        private volatile boolean retired;
+        
+        Lease(Long sweetId) {
+            this.sweetId = sweetId;
+        }
+        
+        boolean tryTake(int quantity) {
+            int current;
+            do {
+                current = remaining.get();
+                if (retired || current < quantity || expired()) {
+                    return false;
+                }
+            } while (!remaining.compareAndSet(current, current - quantity));
+            lastTakenAt = System.currentTimeMillis();
+            return true;
+        }
+        
+        boolean expired() {
+            return System.currentTimeMillis() >= expiresAt;
+        }
+        
+        void refresh(Sweet sweet, int othersHold) {
+            snapshot = SweetDto.fromEntity(sweet);
+            heldByOthers = othersHold;
+            lastReported = reportedQuantity();
+        }
+        
+        int reportedQuantity() {
+            return snapshot.getQuantity() + heldByOthers + remaining.get();
+        }
+    }
+}
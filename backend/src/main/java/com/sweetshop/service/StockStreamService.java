@@ -0,0 +1,162 @@
+package com.sweetshop.service;
+
+import com.sweetshop.dto.StockUpdateDto;
+import com.sweetshop.event.StockChangedEvent;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@Slf4j
+@Service
+public class StockStreamService {
+    
+    private final Map<Long, StockUpdateDto> pending = new ConcurrentHashMap<>();
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final ExecutorService sender;
+    
+    @Value("${stock-stream.buffer-size:256}")
+    private int bufferSize;
+    
+    @Value("${stock-stream.emitter-timeout-ms:1800000}")
+    private long emitterTimeout;
+    
+    public StockStreamService(@Value("${stock-stream.sender-threads:2}") int senderThreads) {
+        this.sender = Executors.newFixedThreadPool(senderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "stock-stream-sender");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(emitterTimeout);
+        Subscriber subscriber = new Subscriber(emitter, new ArrayBlockingQueue<>(bufferSize));
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        return emitter;
+    }
+    
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+    
+    // Runs on the writer's thread after commit, so it only records the latest state per id
+    @TransactionalEventListener
+    public void onStockChanged(StockChangedEvent event) {
+        if (!subscribers.isEmpty()) {
+            publish(StockUpdateDto.fromEvent(event));
+        }
+    }
+    
+    // Also fed by the change feed with updates committed on other instances
+    public void publish(StockUpdateDto update) {
+        if (!subscribers.isEmpty()) {
+            pending.put(update.getId(), update);
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${stock-stream.coalesce-window-ms:250}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        
+        List<StockUpdateDto> batch = new ArrayList<>(pending.size());
+        for (Long id : pending.keySet()) {
+            StockUpdateDto update = pending.remove(id);
+            if (update != null) {
+                batch.add(update);
+            }
+        }
+        
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.offer(batch)) {
+                scheduleDrain(subscriber);
+            } else {
+                // Buffer overflowed: drop the subscriber so the client reconnects and reloads the list
+                log.debug("Dropping slow stock stream subscriber");
+                subscribers.remove(subscriber);
+                subscriber.emitter.complete();
+            }
+        }
+    }
+    
+    private void scheduleDrain(Subscriber subscriber) {
+        if (!subscriber.draining.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            sender.execute(() -> drain(subscriber));
+        } catch (RejectedExecutionException e) {
+            subscriber.draining.set(false);
+        }
+    }
+    
+    private void drain(Subscriber subscriber) {
+        try {
+            StockUpdateDto update;
+            while ((update = subscriber.buffer.poll()) != null) {
+                subscriber.emitter.send(SseEmitter.event()
+                        .name("stock")
+                        .id(String.valueOf(update.getId()))
+                        .data(update));
+            }
+        } catch (IOException | IllegalStateException e) {
+            subscribers.remove(subscriber);
+            subscriber.emitter.completeWithError(e);
+            return;
+        } finally {
+            subscriber.draining.set(false);
+        }
+        
+        if (!subscriber.buffer.isEmpty()) {
+            scheduleDrain(subscriber);
+        }
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        sender.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        subscribers.clear();
+    }
+    
+    private static class Subscriber {
+        private final SseEmitter emitter;
+        private final BlockingQueue<StockUpdateDto> buffer;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        
+        Subscriber(SseEmitter emitter, BlockingQueue<StockUpdateDto> buffer) {
+            this.emitter = emitter;
+            this.buffer = buffer;
+        }
+        
+        boolean offer(List<StockUpdateDto> updates) {
+            for (StockUpdateDto update : updates) {
+                if (!buffer.offer(update)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,294 @@
+package com.sweetshop.service;
+
+import com.sweetshop.dto.*;
+import com.sweetshop.entity.Store;
+import com.sweetshop.entity.Sweet;
+import com.sweetshop.event.LockWait;
+import com.sweetshop.event.StockChangedEvent;
+import com.sweetshop.repository.StoreRepository;
+import com.sweetshop.repository.SweetRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+// Per-store stock lives in a store_stock table sharded by store id across the configured
+// databases, so purchases at different stores do not contend on one database.
+// Without shard URLs the main database is the only shard, and its store_stock comes from the
+// main migrations. Separate shard databases are migrated from db/shard-migration on startup.
+@Slf4j
+@Service
+public class StoreInventoryService {
+    
+    private final SweetRepository sweetRepository;
+    private final StoreRepository storeRepository;
+    private final List<Shard> shards = new ArrayList<>();
+    private final List<HikariDataSource> ownedPools = new ArrayList<>();
+    private final ExecutorService gatherExecutor;
+    private final long gatherTimeout;
+    
+    public StoreInventoryService(SweetRepository sweetRepository,
+                                 StoreRepository storeRepository,
+                                 DataSource dataSource,
+                                 @Value("${inventory-shards.urls:}") String shardUrls,
+                                 @Value("${inventory-shards.username:${spring.datasource.username:}}") String username,
+                                 @Value("${inventory-shards.password:${spring.datasource.password:}}") String password,
+                                 @Value("${inventory-shards.pool-size:5}") int poolSize,
+                                 @Value("${inventory-shards.gather-timeout-ms:2000}") long gatherTimeout,
+                                 @Value("${inventory-shards.migrate:${spring.flyway.enabled:true}}") boolean migrate,
+                                 ObjectProvider<MeterRegistry> meterRegistry) {
+        this.sweetRepository = sweetRepository;
+        this.storeRepository = storeRepository;
+        this.gatherTimeout = gatherTimeout;
+        
+        for (String url : StringUtils.commaDelimitedListToStringArray(shardUrls)) {
+            if (url.isBlank()) {
+                continue;
+            }
+            HikariDataSource pool = new HikariDataSource();
+            pool.setJdbcUrl(url.trim());
+            pool.setUsername(username);
+            pool.setPassword(password);
+            pool.setMaximumPoolSize(poolSize);
+            pool.setPoolName("inventory-shard-" + ownedPools.size());
+            meterRegistry.ifAvailable(registry -> pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+            ownedPools.add(pool);
+            if (migrate) {
+                // Shards that already have the table from before migrations are taken as version 1
+                Flyway.configure()
+                        .dataSource(pool)
+                        .locations("classpath:db/shard-migration")
+                        .baselineOnMigrate(true)
+                        .load()
+                        .migrate();
+            }
+            shards.add(new Shard(pool, gatherTimeout));
+        }
+        if (shards.isEmpty()) {
+            shards.add(new Shard(dataSource, gatherTimeout));
+        }
+        
+        // One thread per pooled connection, so concurrent availability requests are limited by
+        // the shard pools rather than queuing behind each other for a single thread per shard
+        AtomicInteger counter = new AtomicInteger();
+        this.gatherExecutor = Executors.newFixedThreadPool(shards.size() * poolSize, runnable -> {
+            Thread thread = new Thread(runnable, "inventory-gather-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    public StoreDto createStore(StoreRequest request) {
+        if (storeRepository.existsByName(request.getName())) {
+            throw new RuntimeException("A store with this name already exists");
+        }
+        Store store = storeRepository.save(Store.builder()
+                .name(request.getName())
+                .address(request.getAddress())
+                .build());
+        return StoreDto.fromEntity(store);
+    }
+    
+    public List<StoreDto> getStores() {
+        return storeRepository.findAll().stream()
+                .map(StoreDto::fromEntity)
+                .collect(Collectors.toList());
+    }
+    
+    public PurchaseResponse purchase(Long sweetId, Long storeId, int quantity) {
+        if (quantity < 1) {
+            throw new RuntimeException("Quantity must be at least 1");
+        }
+        Sweet sweet = findSweet(sweetId);
+        requireStore(storeId);
+        
+        Shard shard = shardFor(storeId);
+        Integer remaining = shard.transaction.execute(status -> {
+            int updated = LockWait.timed(() -> shard.jdbc.update(
+                    "UPDATE store_stock SET quantity = quantity - ?, updated_at = ? "
+                            + "WHERE store_id = ? AND sweet_id = ? AND quantity >= ?",
+                    quantity, now(), storeId, sweetId, quantity));
+            int current = currentQuantity(shard, storeId, sweetId);
+            if (updated == 0) {
+                throw new SweetService.InsufficientStockException("Insufficient stock", current);
+            }
+            return current;
+        });
+        
+        return PurchaseResponse.builder()
+                .message("Purchase successful")
+                .sweet(SweetDto.fromEntity(sweet))
+                .purchased(quantity)
+                .storeId(storeId)
+                .storeQuantity(remaining)
+                .build();
+    }
+    
+    public RestockResponse restock(Long sweetId, Long storeId, int quantity) {
+        if (quantity < 1) {
+            throw new RuntimeException("Quantity must be at least 1");
+        }
+        Sweet sweet = findSweet(sweetId);
+        requireStore(storeId);
+        
+        Shard shard = shardFor(storeId);
+        Integer stocked = shard.transaction.execute(status -> {
+            if (addStock(shard, storeId, sweetId, quantity) == 0) {
+                try {
+                    shard.jdbc.update("INSERT INTO store_stock (store_id, sweet_id, quantity, updated_at) "
+                            + "VALUES (?, ?, ?, ?)", storeId, sweetId, quantity, now());
+                } catch (DuplicateKeyException e) {
+                    // Another restock created the row first
+                    addStock(shard, storeId, sweetId, quantity);
+                }
+            }
+            return currentQuantity(shard, storeId, sweetId);
+        });
+        
+        return RestockResponse.builder()
+                .message("Restock successful")
+                .sweet(SweetDto.fromEntity(sweet))
+                .added(quantity)
+                .storeId(storeId)
+                .storeQuantity(stocked)
+                .build();
+    }
+    
+    // Queries every shard in parallel and merges the rows; a shard that fails or times out
+    // is left out and the response is marked incomplete
+    public AvailabilityResponse getAvailability(Long sweetId) {
+        Sweet sweet = findSweet(sweetId);
+        
+        List<CompletableFuture<List<StoreStockDto>>> futures = shards.stream()
+                .map(shard -> CompletableFuture.supplyAsync(() -> stockForSweet(shard, sweetId), gatherExecutor))
+                .toList();
+        
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(gatherTimeout);
+        List<StoreStockDto> stocks = new ArrayList<>();
+        boolean complete = true;
+        for (CompletableFuture<List<StoreStockDto>> future : futures) {
+            try {
+                stocks.addAll(future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+            } catch (ExecutionException | TimeoutException e) {
+                log.warn("Inventory shard did not answer for sweet {}: {}", sweetId, e.toString());
+                // Only skips a read that has not started; a running one ends at the query timeout
+                future.cancel(false);
+                complete = false;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while reading store stock");
+            }
+        }
+        
+        Map<Long, String> names = storeRepository.findAllById(stocks.stream().map(StoreStockDto::getStoreId).toList())
+                .stream()
+                .collect(Collectors.toMap(Store::getId, Store::getName));
+        stocks.forEach(stock -> stock.setStoreName(names.get(stock.getStoreId())));
+        stocks.sort(Comparator.comparing(StoreStockDto::getStoreId));
+        
+        return AvailabilityResponse.builder()
+                .sweetId(sweet.getId())
+                .sweetName(sweet.getName())
+                .totalQuantity(stocks.stream().mapToInt(StoreStockDto::getQuantity).sum())
+                .stores(stocks)
+                .complete(complete)
+                .build();
+    }
+    
+    public int getShardCount() {
+        return shards.size();
+    }
+    
+    @TransactionalEventListener
+    public void onStockChanged(StockChangedEvent event) {
+        if (event.isDeleted()) {
+            shards.forEach(shard -> shard.jdbc.update("DELETE FROM store_stock WHERE sweet_id = ?", event.getSweetId()));
+        }
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        gatherExecutor.shutdownNow();
+        ownedPools.forEach(HikariDataSource::close);
+    }
+    
+    private Shard shardFor(Long storeId) {
+        return shards.get(Math.floorMod(storeId, shards.size()));
+    }
+    
+    private Sweet findSweet(Long sweetId) {
+        return sweetRepository.findById(sweetId)
+                .orElseThrow(() -> new RuntimeException("Sweet not found"));
+    }
+    
+    private void requireStore(Long storeId) {
+        if (!storeRepository.existsById(storeId)) {
+            throw new RuntimeException("Store not found");
+        }
+    }
+    
+    private int addStock(Shard shard, Long storeId, Long sweetId, int quantity) {
+        return shard.jdbc.update("UPDATE store_stock SET quantity = quantity + ?, updated_at = ? "
+                + "WHERE store_id = ? AND sweet_id = ?", quantity, now(), storeId, sweetId);
+    }
+    
+    private int currentQuantity(Shard shard, Long storeId, Long sweetId) {
+        List<Integer> rows = shard.jdbc.queryForList(
+                "SELECT quantity FROM store_stock WHERE store_id = ? AND sweet_id = ?",
+                Integer.class, storeId, sweetId);
+        return rows.isEmpty() ? 0 : rows.get(0);
+    }
+    
+    private List<StoreStockDto> stockForSweet(Shard shard, Long sweetId) {
+        return shard.gatherJdbc.query("SELECT store_id, quantity FROM store_stock WHERE sweet_id = ?",
+                (rs, rowNum) -> StoreStockDto.builder()
+                        .storeId(rs.getLong("store_id"))
+                        .quantity(rs.getInt("quantity"))
+                        .build(),
+                sweetId);
+    }
+    
+    private static Timestamp now() {
+        return new Timestamp(System.currentTimeMillis());
+    }
+    
+    private static class Shard {
+        private final JdbcTemplate jdbc;
+        private final JdbcTemplate gatherJdbc;
+        private final TransactionTemplate transaction;
+        
+        Shard(DataSource dataSource, long gatherTimeout) {
+            this.jdbc = new JdbcTemplate(dataSource);
+            // Gather reads give up with the request, so a stuck shard does not hold a thread and connection
+            this.gatherJdbc = new JdbcTemplate(dataSource);
+            this.gatherJdbc.setQueryTimeout((int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(gatherTimeout + 999)));
+            this.transaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        }
+    }
+}
@@ -1,25 +1,48 @@
 package com.sweetshop.service;
 
+import com.sweetshop.config.ReadYourWritesTracker;
 import com.sweetshop.dto.*;
+import com.sweetshop.entity.ChangeFeedEntry;
 import com.sweetshop.entity.Sweet;
+import com.sweetshop.event.LockWait;
+import com.sweetshop.event.SearchJfrEvent;
+import com.sweetshop.event.StockChangedEvent;
 import com.sweetshop.repository.SweetRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class SweetService {
     
+    // Matches idx_sweets_created_at_id; the id keeps pages stable when sweets share a timestamp
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Order.desc("createdAt"), Sort.Order.desc("id"));
+    
     private final SweetRepository sweetRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ChangeFeedService changeFeedService;
+    private final StockLeaseService stockLeaseService;
+    private final ObjectProvider<ReadYourWritesTracker> readYourWrites;
+    
+    // Identical reads arriving together share one query
+    private final SingleFlight<Long, SweetDto> sweetByIdFlights = new SingleFlight<>();
+    private final SingleFlight<PageKey, SweetListResponse> listFlights = new SingleFlight<>();
+    private final SingleFlight<SearchKey, SweetListResponse> searchFlights = new SingleFlight<>();
     
     @Transactional
     public SweetResponse createSweet(SweetRequest request) {
@@ -45,21 +68,27 @@ public class SweetService {
     }
     
     public SweetListResponse getAllSweets(int page, int limit) {
-        Pageable pageable = PageRequest.of(page - 1, limit, Sort.by("createdAt").descending());
+        return coalesce(listFlights, new PageKey(page, limit), () -> loadAllSweets(page, limit));
+    }
+    
+    private SweetListResponse loadAllSweets(int page, int limit) {
+        Pageable pageable = PageRequest.of(page - 1, limit, NEWEST_FIRST);
         Page<Sweet> sweetPage = sweetRepository.findAll(pageable);
         
         return buildListResponse(sweetPage, page, limit);
     }
     
     public SweetDto getSweetById(Long id) {
+        return coalesce(sweetByIdFlights, id, () -> loadSweetById(id));
+    }
+    
+    private SweetDto loadSweetById(Long id) {
         Sweet sweet = sweetRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Sweet not found"));
-        return SweetDto.fromEntity(sweet);
+        return withLeasedUnits(SweetDto.fromEntity(sweet), stockLeaseService.leasedUnits(id));
     }
     
     public SweetListResponse searchSweets(String name, String category, BigDecimal minPrice, BigDecimal maxPrice, int page, int limit) {
-        Pageable pageable = PageRequest.of(page - 1, limit, Sort.by("createdAt").descending());
-        
         Sweet.Category categoryEnum = null;
         if (category != null && !category.isEmpty()) {
             try {
@@ -69,21 +98,80 @@ public class SweetService {
             }
         }
         
-        Page<Sweet> sweetPage = sweetRepository.searchSweets(
-                name != null && !name.isEmpty() ? name : null,
+        // The name match is case-insensitive and prices compare by value, so normalise both for the key
+        SearchKey key = new SearchKey(
+                name != null && !name.isEmpty() ? name.toLowerCase(Locale.ROOT) : null,
                 categoryEnum,
-                minPrice,
-                maxPrice,
+                minPrice != null ? minPrice.stripTrailingZeros() : null,
+                maxPrice != null ? maxPrice.stripTrailingZeros() : null,
+                page,
+                limit);
+        SearchJfrEvent event = new SearchJfrEvent();
+        event.begin();
+        SweetListResponse response = coalesce(searchFlights, key, () -> loadSearch(key));
+        if (event.shouldCommit()) {
+            event.name = key.name();
+            event.category = key.category() != null ? key.category().name() : null;
+            event.minPrice = key.minPrice() != null ? key.minPrice().toPlainString() : null;
+            event.maxPrice = key.maxPrice() != null ? key.maxPrice().toPlainString() : null;
+            event.page = page;
+            event.resultCount = response.getPagination().getTotal();
+            event.commit();
+        }
+        return response;
+    }
+    
+    private SweetListResponse loadSearch(SearchKey key) {
+        Pageable pageable = PageRequest.of(key.page() - 1, key.limit(), NEWEST_FIRST);
+        
+        Page<Sweet> sweetPage = sweetRepository.searchSweets(
+                key.name(),
+                key.category(),
+                key.minPrice(),
+                key.maxPrice(),
                 pageable
         );
         
-        return buildListResponse(sweetPage, page, limit);
+        return buildListResponse(sweetPage, key.page(), key.limit());
+    }
+    
+    // With read replicas a shared flight may be reading a replica, which a user pinned to the primary must not join
+    private <K, V> V coalesce(SingleFlight<K, V> flights, K key, Supplier<V> loader) {
+        ReadYourWritesTracker tracker = readYourWrites.getIfAvailable();
+        if (tracker != null && tracker.isCurrentUserPinned()) {
+            return loader.get();
+        }
+        return flights.execute(key, loader);
+    }
+    
+    public long getCoalescedReadCount() {
+        return sweetByIdFlights.getCoalesced() + listFlights.getCoalesced() + searchFlights.getCoalesced();
+    }
+    
+    public long getExecutedReadCount() {
+        return sweetByIdFlights.getExecutions() + listFlights.getExecutions() + searchFlights.getExecutions();
+    }
+    
+    // A read that started before a committed write may return the old state, so later readers must not join it
+    @TransactionalEventListener
+    public void onStockChanged(StockChangedEvent event) {
+        forgetReads(event.getSweetId());
+    }
+    
+    public void forgetReads(Long sweetId) {
+        sweetByIdFlights.forget(sweetId);
+        listFlights.forgetAll();
+        searchFlights.forgetAll();
     }
     
     @Transactional
     public SweetResponse updateSweet(Long id, SweetRequest request) {
-        Sweet sweet = sweetRepository.findById(id)
+        // Locked like the lease paths, which move units in and out of this row
+        Sweet sweet = sweetRepository.findByIdForUpdate(id)
                 .orElseThrow(() -> new RuntimeException("Sweet not found"));
+        // With stock leasing the reported quantity includes units held in leases
+        int leased = stockLeaseService.leasedUnits(id);
+        int previousQuantity = sweet.getQuantity() + leased;
         
         if (request.getName() != null && !request.getName().equals(sweet.getName())) {
             if (sweetRepository.existsByName(request.getName())) {
@@ -99,7 +187,11 @@ public class SweetService {
             sweet.setPrice(request.getPrice());
         }
         if (request.getQuantity() != null) {
-            sweet.setQuantity(request.getQuantity());
+            // Leased units are already out of the row and may be sold at any moment, so they cannot be taken back here
+            if (request.getQuantity() < leased) {
+                throw new RuntimeException("Quantity cannot be set below the " + leased + " units held in stock leases");
+            }
+            sweet.setQuantity(request.getQuantity() - leased);
         }
         if (request.getDescription() != null) {
             sweet.setDescription(request.getDescription());
@@ -108,11 +200,13 @@ public class SweetService {
             sweet.setImageUrl(request.getImageUrl());
         }
         
-        Sweet savedSweet = sweetRepository.save(sweet);
+        Sweet savedSweet = sweetRepository.saveAndFlush(sweet);
+        eventPublisher.publishEvent(StockChangedEvent.of(savedSweet, previousQuantity, savedSweet.getQuantity() + leased));
+        changeFeedService.record(ChangeFeedEntry.EntityType.SWEET, savedSweet.getId(), null);
         
         return SweetResponse.builder()
                 .message("Sweet updated successfully")
-                .sweet(SweetDto.fromEntity(savedSweet))
+                .sweet(withLeasedUnits(SweetDto.fromEntity(savedSweet), leased))
                 .build();
     }
     
@@ -121,6 +215,9 @@ public class SweetService {
         Sweet sweet = sweetRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Sweet not found"));
         sweetRepository.delete(sweet);
+        stockLeaseService.discard(id);
+        eventPublisher.publishEvent(StockChangedEvent.deleted(sweet));
+        changeFeedService.record(ChangeFeedEntry.EntityType.SWEET, sweet.getId(), null);
     }
     
     @Transactional
@@ -129,15 +226,19 @@ public class SweetService {
             throw new RuntimeException("Quantity must be at least 1");
         }
         
-        Sweet sweet = sweetRepository.findById(id)
+        // Locked so concurrent buyers queue on the row instead of both selling the same units
+        Sweet sweet = LockWait.timed(() -> sweetRepository.findByIdForUpdate(id))
                 .orElseThrow(() -> new RuntimeException("Sweet not found"));
         
         if (sweet.getQuantity() < quantity) {
             throw new InsufficientStockException("Insufficient stock", sweet.getQuantity());
         }
         
-        sweet.setQuantity(sweet.getQuantity() - quantity);
-        Sweet savedSweet = sweetRepository.save(sweet);
+        int previousQuantity = sweet.getQuantity();
+        sweet.setQuantity(previousQuantity - quantity);
+        Sweet savedSweet = sweetRepository.saveAndFlush(sweet);
+        eventPublisher.publishEvent(StockChangedEvent.of(savedSweet, previousQuantity));
+        changeFeedService.record(ChangeFeedEntry.EntityType.SWEET, savedSweet.getId(), null);
         
         return PurchaseResponse.builder()
                 .message("Purchase successful")
@@ -152,22 +253,29 @@ public class SweetService {
             throw new RuntimeException("Quantity must be at least 1");
         }
         
-        Sweet sweet = sweetRepository.findById(id)
+        Sweet sweet = sweetRepository.findByIdForUpdate(id)
                 .orElseThrow(() -> new RuntimeException("Sweet not found"));
         
-        sweet.setQuantity(sweet.getQuantity() + quantity);
-        Sweet savedSweet = sweetRepository.save(sweet);
+        int leased = stockLeaseService.leasedUnits(id);
+        int previousQuantity = sweet.getQuantity();
+        sweet.setQuantity(previousQuantity + quantity);
+        Sweet savedSweet = sweetRepository.saveAndFlush(sweet);
+        eventPublisher.publishEvent(StockChangedEvent.of(savedSweet, previousQuantity + leased,
+                savedSweet.getQuantity() + leased));
+        changeFeedService.record(ChangeFeedEntry.EntityType.SWEET, savedSweet.getId(), null);
         
         return RestockResponse.builder()
                 .message("Restock successful")
-                .sweet(SweetDto.fromEntity(savedSweet))
+                .sweet(withLeasedUnits(SweetDto.fromEntity(savedSweet), leased))
                 .added(quantity)
                 .build();
     }
     
     private SweetListResponse buildListResponse(Page<Sweet> sweetPage, int page, int limit) {
+        Map<Long, Integer> leased = stockLeaseService.leasedUnits(
+                sweetPage.getContent().stream().map(Sweet::getId).toList());
         List<SweetDto> sweetDtos = sweetPage.getContent().stream()
-                .map(SweetDto::fromEntity)
+                .map(sweet -> withLeasedUnits(SweetDto.fromEntity(sweet), leased.getOrDefault(sweet.getId(), 0)))
                 .collect(Collectors.toList());
         
         PaginationDto pagination = PaginationDto.builder()
@@ -183,6 +291,20 @@ public class SweetService {
                 .build();
     }
     
+    private static SweetDto withLeasedUnits(SweetDto sweet, int leased) {
+        if (leased != 0) {
+            sweet.setQuantity(sweet.getQuantity() + leased);
+        }
+        return sweet;
+    }
+    
+    private record PageKey(int page, int limit) {
+    }
+    
+    private record SearchKey(String name, Sweet.Category category, BigDecimal minPrice, BigDecimal maxPrice,
+                             int page, int limit) {
+    }
+    
     public static class InsufficientStockException extends RuntimeException {
         private final int available;
         
@@ -0,0 +1,176 @@
+package com.sweetshop.service;
+
+import com.sweetshop.dto.BulkRegisterResponse;
+import com.sweetshop.dto.BulkRegisterResult;
+import com.sweetshop.dto.RegisterRequest;
+import com.sweetshop.entity.ChangeFeedEntry;
+import com.sweetshop.entity.User;
+import com.sweetshop.repository.UserRepository;
+import com.sweetshop.security.BoundedPasswordEncoder;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class UserProvisioningService {
+    
+    private static final String INSERT_USER =
+            "INSERT INTO users (email, password, name, role, token_version, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?)";
+    
+    private final UserRepository userRepository;
+    private final PasswordEncoder passwordEncoder;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final CustomUserDetailsService userDetailsService;
+    private final ChangeFeedService changeFeedService;
+    
+    @Value("${user-provisioning.insert-batch-size:100}")
+    private int insertBatchSize;
+    
+    public BulkRegisterResponse provision(List<RegisterRequest> requests) {
+        BulkRegisterResult[] results = new BulkRegisterResult[requests.size()];
+        
+        // Lower-cased email -> row index of the first valid row using it
+        Map<String, Integer> candidates = new LinkedHashMap<>();
+        for (int i = 0; i < requests.size(); i++) {
+            RegisterRequest request = requests.get(i);
+            if (request == null) {
+                results[i] = result(i, null, BulkRegisterResult.Status.INVALID, "Row is empty");
+                continue;
+            }
+            
+            Set<ConstraintViolation<RegisterRequest>> violations = validator.validate(request);
+            if (!violations.isEmpty()) {
+                String message = violations.stream()
+                        .map(ConstraintViolation::getMessage)
+                        .sorted()
+                        .collect(Collectors.joining(", "));
+                results[i] = result(i, request.getEmail(), BulkRegisterResult.Status.INVALID, message);
+                continue;
+            }
+            
+            String email = request.getEmail().toLowerCase(Locale.ROOT);
+            if (candidates.putIfAbsent(email, i) != null) {
+                results[i] = result(i, email, BulkRegisterResult.Status.DUPLICATE, "Email appears earlier in the batch");
+            }
+        }
+        
+        if (!candidates.isEmpty()) {
+            // The column compares case-insensitively on MySQL, so stored emails may differ in case from the keys
+            for (String email : userRepository.findExistingEmails(candidates.keySet())) {
+                Integer index = candidates.remove(email.toLowerCase(Locale.ROOT));
+                if (index != null) {
+                    results[index] = result(index, email, BulkRegisterResult.Status.DUPLICATE, "User with this email already exists");
+                }
+            }
+        }
+        
+        if (!candidates.isEmpty()) {
+            insert(requests, candidates, results);
+        }
+        
+        List<BulkRegisterResult> report = Arrays.asList(results);
+        return BulkRegisterResponse.builder()
+                .created(count(report, BulkRegisterResult.Status.CREATED))
+                .duplicates(count(report, BulkRegisterResult.Status.DUPLICATE))
+                .invalid(count(report, BulkRegisterResult.Status.INVALID))
+                .results(report)
+                .build();
+    }
+    
+    private void insert(List<RegisterRequest> requests, Map<String, Integer> candidates, BulkRegisterResult[] results) {
+        List<String> emails = new ArrayList<>(candidates.keySet());
+        List<String> rawPasswords = new ArrayList<>(emails.size());
+        for (String email : emails) {
+            rawPasswords.add(requests.get(candidates.get(email)).getPassword());
+        }
+        
+        // Hash before opening the transaction so no connection is held while the CPU works
+        List<String> hashes = encodeAll(rawPasswords);
+        
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(emails.size());
+        for (int i = 0; i < emails.size(); i++) {
+            RegisterRequest request = requests.get(candidates.get(emails.get(i)));
+            rows.add(new Object[] {emails.get(i), hashes.get(i), request.getName(), roleOf(request).name(), 0, now, now});
+        }
+        
+        List<UserRepository.IdAndEmail> created;
+        try {
+            created = transactionTemplate.execute(status -> {
+                jdbcTemplate.batchUpdate(INSERT_USER, rows, insertBatchSize, (ps, row) -> {
+                    for (int column = 0; column < row.length; column++) {
+                        ps.setObject(column + 1, row[column]);
+                    }
+                });
+                List<UserRepository.IdAndEmail> inserted = userRepository.findByEmailIn(emails);
+                inserted.forEach(user -> changeFeedService.record(
+                        ChangeFeedEntry.EntityType.USER, user.getId(), user.getEmail()));
+                return inserted;
+            });
+        } catch (DuplicateKeyException e) {
+            throw new IllegalStateException("Some emails were registered while the batch was running, please retry");
+        }
+        
+        for (UserRepository.IdAndEmail user : created) {
+            Integer index = candidates.get(user.getEmail().toLowerCase(Locale.ROOT));
+            if (index == null) {
+                continue;
+            }
+            results[index] = BulkRegisterResult.builder()
+                    .index(index)
+                    .email(user.getEmail())
+                    .status(BulkRegisterResult.Status.CREATED)
+                    .id(user.getId())
+                    .build();
+            // Rows bypass JPA, so drop any negative cache entry left by earlier failed logins
+            userDetailsService.invalidate(user.getEmail());
+        }
+    }
+    
+    private List<String> encodeAll(List<String> rawPasswords) {
+        if (passwordEncoder instanceof BoundedPasswordEncoder boundedPasswordEncoder) {
+            return boundedPasswordEncoder.encodeAll(rawPasswords);
+        }
+        return rawPasswords.stream().map(passwordEncoder::encode).toList();
+    }
+    
+    private User.Role roleOf(RegisterRequest request) {
+        if (request.getRole() != null && request.getRole().equalsIgnoreCase("admin")) {
+            return User.Role.ADMIN;
+        }
+        return User.Role.USER;
+    }
+    
+    private BulkRegisterResult result(int index, String email, BulkRegisterResult.Status status, String message) {
+        return BulkRegisterResult.builder()
+                .index(index)
+                .email(email)
+                .status(status)
+                .message(message)
+                .build();
+    }
+    
+    private int count(List<BulkRegisterResult> results, BulkRegisterResult.Status status) {
+        return (int) results.stream().filter(result -> result.getStatus() == status).count();
+    }
+}
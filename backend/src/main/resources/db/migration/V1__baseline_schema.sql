@@ -0,0 +1,31 @@
+-- Schema as Hibernate's ddl-auto=update created it on MySQL before migrations were introduced.
+-- Databases that already have these tables are baselined at version 1 and start from V2.
+-- Keep this to what those databases actually have; anything newer belongs in a later script.
+
+create table users (
+    id bigint not null auto_increment,
+    email varchar(255) not null,
+    password varchar(255) not null,
+    name varchar(255) not null,
+    role enum ('USER','ADMIN') not null,
+    created_at datetime(6),
+    updated_at datetime(6),
+    primary key (id),
+    constraint uk_users_email unique (email)
+);
+
+create table sweets (
+    id bigint not null auto_increment,
+    name varchar(255) not null,
+    category enum ('Chocolate','Candy','Cake','Cookie','Pastry','Ice_Cream','Ladoo','Barfi','Halwa','Rasgulla',
+        'Gulab_Jamun','Kheer','Peda','Jalebi','Bengali_Sweets','Dry_Sweets','Milk_Sweets','Namkeen','Beverages',
+        'Bakery','Snacks','Other') not null,
+    price decimal(10,2) not null,
+    quantity integer not null,
+    description varchar(500),
+    image_url varchar(255),
+    created_at datetime(6),
+    updated_at datetime(6),
+    primary key (id),
+    constraint uk_sweets_name unique (name)
+);
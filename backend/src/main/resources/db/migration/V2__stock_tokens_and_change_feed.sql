@@ -0,0 +1,86 @@
+-- Tables and columns added for token revocation, stock alerts and leases, store inventory and the
+-- cross-instance change feed.
+
+-- Bumped to invalidate every token issued to the user; existing users start at 0
+alter table users add column token_version integer not null default 0;
+
+create table stores (
+    id bigint not null auto_increment,
+    name varchar(255) not null,
+    address varchar(255),
+    created_at datetime(6),
+    primary key (id),
+    constraint uk_stores_name unique (name)
+);
+
+-- Per-store stock when the main database is the only inventory shard; separate shard databases
+-- get the same table from db/shard-migration
+create table store_stock (
+    store_id bigint not null,
+    sweet_id bigint not null,
+    quantity integer not null,
+    updated_at timestamp not null,
+    primary key (store_id, sweet_id)
+);
+
+create table stock_alerts (
+    id bigint not null auto_increment,
+    sweet_id bigint not null,
+    sweet_name varchar(255) not null,
+    quantity integer not null,
+    threshold integer not null,
+    acknowledged bit not null,
+    acknowledged_by varchar(255),
+    acknowledged_at datetime(6),
+    created_at datetime(6),
+    primary key (id)
+);
+
+create table stock_thresholds (
+    id bigint not null auto_increment,
+    sweet_id bigint,
+    category enum ('Chocolate','Candy','Cake','Cookie','Pastry','Ice_Cream','Ladoo','Barfi','Halwa','Rasgulla',
+        'Gulab_Jamun','Kheer','Peda','Jalebi','Bengali_Sweets','Dry_Sweets','Milk_Sweets','Namkeen','Beverages',
+        'Bakery','Snacks','Other'),
+    threshold integer not null,
+    primary key (id),
+    constraint uk_stock_thresholds_sweet unique (sweet_id),
+    constraint uk_stock_thresholds_category unique (category)
+);
+
+create table stock_leases (
+    id bigint not null auto_increment,
+    sweet_id bigint not null,
+    node_id varchar(64) not null,
+    units integer not null,
+    expires_at datetime(6) not null,
+    primary key (id),
+    constraint uk_stock_leases_sweet_node unique (sweet_id, node_id)
+);
+
+create table revoked_tokens (
+    id bigint not null auto_increment,
+    jti varchar(64) not null,
+    user_id bigint,
+    expires_at datetime(6) not null,
+    revoked_at datetime(6),
+    primary key (id),
+    constraint uk_revoked_tokens_jti unique (jti)
+);
+
+create table change_feed (
+    seq bigint not null auto_increment,
+    entity_type enum ('SWEET','USER','REVOKED_TOKEN') not null,
+    entity_id bigint,
+    entity_key varchar(255),
+    node_id varchar(64) not null,
+    created_at datetime(6),
+    primary key (seq)
+);
+
+create table change_feed_offsets (
+    node_id varchar(64) not null,
+    seq bigint not null,
+    updated_at datetime(6) not null,
+    primary key (node_id)
+);
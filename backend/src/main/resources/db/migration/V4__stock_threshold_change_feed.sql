@@ -0,0 +1,2 @@
+-- Threshold changes go through the change feed so every instance drops its cached value
+alter table change_feed modify entity_type enum ('SWEET','USER','REVOKED_TOKEN','STOCK_THRESHOLD') not null;
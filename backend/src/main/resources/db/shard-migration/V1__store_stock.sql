@@ -0,0 +1,10 @@
+-- Inventory shard databases hold only per-store stock. Same definition as in the main migrations;
+-- shards that already have the table are baselined at version 1.
+
+create table store_stock (
+    store_id bigint not null,
+    sweet_id bigint not null,
+    quantity integer not null,
+    updated_at timestamp not null,
+    primary key (store_id, sweet_id)
+);
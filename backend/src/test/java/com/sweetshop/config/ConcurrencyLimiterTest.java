@@ -0,0 +1,83 @@
+package com.sweetshop.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrencyLimiterTest {
+    
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(5);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(500);
+    
+    @Test
+    void shouldShedLowestPriorityFirst() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(10, 2, 100, 250, 0.5);
+        
+        // List and search may fill half of the limit
+        for (int i = 0; i < 5; i++) {
+            assertTrue(limiter.tryAcquire(ConcurrencyLimiter.Priority.LIST_SEARCH));
+        }
+        assertFalse(limiter.tryAcquire(ConcurrencyLimiter.Priority.LIST_SEARCH));
+        
+        assertTrue(limiter.tryAcquire(ConcurrencyLimiter.Priority.DETAIL_READ));
+        assertTrue(limiter.tryAcquire(ConcurrencyLimiter.Priority.DETAIL_READ));
+        assertFalse(limiter.tryAcquire(ConcurrencyLimiter.Priority.DETAIL_READ));
+        
+        // Purchases can still use the whole limit
+        for (int i = 0; i < 3; i++) {
+            assertTrue(limiter.tryAcquire(ConcurrencyLimiter.Priority.PURCHASE));
+        }
+        assertFalse(limiter.tryAcquire(ConcurrencyLimiter.Priority.PURCHASE));
+        
+        assertEquals(10, limiter.getInFlight());
+        assertEquals(1, limiter.getShed(ConcurrencyLimiter.Priority.LIST_SEARCH));
+        assertEquals(1, limiter.getShed(ConcurrencyLimiter.Priority.PURCHASE));
+        assertEquals(3, limiter.getAccepted(ConcurrencyLimiter.Priority.PURCHASE));
+    }
+    
+    @Test
+    void shouldBackOffOnSlowResponsesAndGrowWhenBusyAndFast() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(10, 2, 100, 250, 0.5);
+        
+        assertTrue(limiter.tryAcquire(ConcurrencyLimiter.Priority.PURCHASE));
+        limiter.release(SLOW, false);
+        assertEquals(5, limiter.getLimit());
+        
+        // Fill the limit and finish everything quickly: the limit creeps back up
+        for (int round = 0; round < 20; round++) {
+            int acquired = 0;
+            while (limiter.tryAcquire(ConcurrencyLimiter.Priority.PURCHASE)) {
+                acquired++;
+            }
+            for (int i = 0; i < acquired; i++) {
+                limiter.release(FAST, false);
+            }
+        }
+        assertTrue(limiter.getLimit() > 5);
+        assertEquals(0, limiter.getInFlight());
+    }
+    
+    @Test
+    void shouldNotGrowWhileIdle() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(10, 2, 100, 250, 0.5);
+        
+        for (int i = 0; i < 100; i++) {
+            assertTrue(limiter.tryAcquire(ConcurrencyLimiter.Priority.LIST_SEARCH));
+            limiter.release(FAST, false);
+        }
+        assertEquals(10, limiter.getLimit());
+    }
+    
+    @Test
+    void shouldClassifyRequests() {
+        assertEquals(ConcurrencyLimiter.Priority.PURCHASE, ConcurrencyLimitInterceptor.priority("POST", "/api/sweets/7/purchase"));
+        assertEquals(ConcurrencyLimiter.Priority.ADMIN_WRITE, ConcurrencyLimitInterceptor.priority("PUT", "/api/sweets/7"));
+        assertEquals(ConcurrencyLimiter.Priority.LOGIN, ConcurrencyLimitInterceptor.priority("POST", "/api/auth/login"));
+        assertEquals(ConcurrencyLimiter.Priority.DETAIL_READ, ConcurrencyLimitInterceptor.priority("GET", "/api/sweets/7"));
+        assertEquals(ConcurrencyLimiter.Priority.DETAIL_READ, ConcurrencyLimitInterceptor.priority("GET", "/api/async/sweets/7"));
+        assertEquals(ConcurrencyLimiter.Priority.LIST_SEARCH, ConcurrencyLimitInterceptor.priority("GET", "/api/sweets"));
+        assertEquals(ConcurrencyLimiter.Priority.LIST_SEARCH, ConcurrencyLimitInterceptor.priority("GET", "/api/async/sweets/search"));
+    }
+}
@@ -0,0 +1,82 @@
+package com.sweetshop.config;
+
+import com.sweetshop.entity.User;
+import com.sweetshop.repository.UserRepository;
+import com.sweetshop.security.JwtUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+// Tests turn metrics export off by default; the scrape endpoint only exists with it on
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+@ActiveProfiles("test")
+class MetricsConfigTest {
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private JwtUtil jwtUtil;
+    
+    private String userToken;
+    private String adminToken;
+    
+    @BeforeEach
+    void setUp() {
+        userRepository.deleteAll();
+        
+        User user = userRepository.save(User.builder()
+                .email("user@example.com")
+                .password("unused")
+                .name("Regular User")
+                .role(User.Role.USER)
+                .build());
+        userToken = jwtUtil.generateToken(user, user.getId(), "user");
+        
+        User admin = userRepository.save(User.builder()
+                .email("admin@example.com")
+                .password("unused")
+                .name("Admin User")
+                .role(User.Role.ADMIN)
+                .build());
+        adminToken = jwtUtil.generateToken(admin, admin.getId(), "admin");
+    }
+    
+    @Test
+    void shouldExportStateGaugesToAdmin() throws Exception {
+        mockMvc.perform(get("/actuator/prometheus")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("sweetshop_change_feed_lag_seconds")))
+                .andExpect(content().string(containsString("sweetshop_change_feed_position")))
+                .andExpect(content().string(containsString("sweetshop_change_feed_applied_total")))
+                .andExpect(content().string(containsString("result=\"coalesced\"")))
+                .andExpect(content().string(containsString("cache=\"tokens\"")))
+                .andExpect(content().string(containsString("cache=\"users\"")));
+    }
+    
+    @Test
+    void shouldKeepScrapeEndpointFromOtherUsers() throws Exception {
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/actuator/prometheus")
+                        .header("Authorization", "Bearer " + userToken))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/actuator/health"))
+                .andExpect(status().isOk());
+    }
+}
@@ -0,0 +1,149 @@
+package com.sweetshop.config;
+
+import com.sweetshop.entity.Sweet;
+import com.sweetshop.entity.User;
+import com.sweetshop.repository.SweetRepository;
+import com.sweetshop.repository.UserRepository;
+import com.sweetshop.security.JwtUtil;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+// Two H2 databases stand in for a primary and a lagging replica: the replica copy of a sweet
+// carries a different quantity, so responses show which database served the read
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing-primary;DB_CLOSE_DELAY=-1",
+        "datasource.routing.enabled=true",
+        "datasource.routing.replica-urls=" + ReadReplicaRoutingTest.REPLICA_URL,
+        "datasource.routing.pin-window-ms=60000"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ReadReplicaRoutingTest {
+    
+    static final String REPLICA_URL = "jdbc:h2:mem:routing-replica;DB_CLOSE_DELAY=-1";
+    
+    private static final int REPLICA_QUANTITY = 999;
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private SweetRepository sweetRepository;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private JwtUtil jwtUtil;
+    
+    private String buyerToken;
+    private String browserToken;
+    private Sweet sweet;
+    
+    // Replicas get their schema from replication, so create the tables read at startup and in the tests
+    @BeforeAll
+    static void createReplicaSchema() throws SQLException {
+        try (Connection connection = DriverManager.getConnection(REPLICA_URL, "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS sweets (id BIGINT PRIMARY KEY, name VARCHAR(255), "
+                    + "category VARCHAR(255), price DECIMAL(10,2), quantity INT, description VARCHAR(500), "
+                    + "image_url VARCHAR(255), created_at TIMESTAMP, updated_at TIMESTAMP)");
+            statement.execute("CREATE TABLE IF NOT EXISTS stock_thresholds (id BIGINT PRIMARY KEY, "
+                    + "sweet_id BIGINT, category VARCHAR(255), threshold INT)");
+            statement.execute("CREATE TABLE IF NOT EXISTS revoked_tokens (id BIGINT PRIMARY KEY, jti VARCHAR(64), "
+                    + "user_id BIGINT, expires_at TIMESTAMP, revoked_at TIMESTAMP)");
+        }
+    }
+    
+    @BeforeEach
+    void setUp() throws SQLException {
+        sweetRepository.deleteAll();
+        userRepository.deleteAll();
+        
+        User buyer = userRepository.save(User.builder()
+                .email("buyer@example.com")
+                .password("unused")
+                .name("Buyer")
+                .role(User.Role.USER)
+                .build());
+        buyerToken = jwtUtil.generateToken(buyer, buyer.getId(), "user");
+        
+        User browser = userRepository.save(User.builder()
+                .email("browser@example.com")
+                .password("unused")
+                .name("Browser")
+                .role(User.Role.USER)
+                .build());
+        browserToken = jwtUtil.generateToken(browser, browser.getId(), "user");
+        
+        sweet = sweetRepository.save(Sweet.builder()
+                .name("Replicated Fudge")
+                .category(Sweet.Category.Candy)
+                .price(new BigDecimal("2.00"))
+                .quantity(10)
+                .build());
+        
+        try (Connection connection = DriverManager.getConnection(REPLICA_URL, "sa", "")) {
+            connection.createStatement().execute("DELETE FROM sweets");
+            try (PreparedStatement insert = connection.prepareStatement("INSERT INTO sweets "
+                    + "(id, name, category, price, quantity, created_at, updated_at) "
+                    + "VALUES (?, 'Replicated Fudge', 'Candy', 2.00, ?, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)")) {
+                insert.setLong(1, sweet.getId());
+                insert.setInt(2, REPLICA_QUANTITY);
+                insert.executeUpdate();
+            }
+        }
+    }
+    
+    @Test
+    void shouldServeReadsFromReplica() throws Exception {
+        mockMvc.perform(get("/api/sweets/" + sweet.getId())
+                        .header("Authorization", "Bearer " + browserToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.sweet.quantity").value(REPLICA_QUANTITY));
+        
+        mockMvc.perform(get("/api/sweets/search")
+                        .param("name", "fudge")
+                        .header("Authorization", "Bearer " + browserToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.sweets[0].quantity").value(REPLICA_QUANTITY));
+    }
+    
+    @Test
+    void shouldPinWriterToPrimaryAfterPurchase() throws Exception {
+        mockMvc.perform(post("/api/sweets/" + sweet.getId() + "/purchase")
+                        .header("Authorization", "Bearer " + buyerToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"quantity\": 3}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.sweet.quantity").value(7));
+        
+        mockMvc.perform(get("/api/sweets/" + sweet.getId())
+                        .header("Authorization", "Bearer " + buyerToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.sweet.quantity").value(7));
+        
+        // Other users keep reading the replica
+        mockMvc.perform(get("/api/sweets/" + sweet.getId())
+                        .header("Authorization", "Bearer " + browserToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.sweet.quantity").value(REPLICA_QUANTITY));
+    }
+}
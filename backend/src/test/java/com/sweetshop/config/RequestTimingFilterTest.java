@@ -0,0 +1,82 @@
+package com.sweetshop.config;
+
+import com.sweetshop.entity.Sweet;
+import com.sweetshop.entity.User;
+import com.sweetshop.repository.SweetRepository;
+import com.sweetshop.repository.UserRepository;
+import com.sweetshop.security.JwtUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.matchesPattern;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = "request-timing.enabled=true")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class RequestTimingFilterTest {
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private SweetRepository sweetRepository;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private JwtUtil jwtUtil;
+    
+    private String token;
+    
+    @BeforeEach
+    void setUp() {
+        sweetRepository.deleteAll();
+        userRepository.deleteAll();
+        User user = userRepository.save(User.builder()
+                .email("timing@example.com")
+                .password("unused")
+                .name("Timing User")
+                .role(User.Role.USER)
+                .build());
+        token = jwtUtil.generateToken(user, user.getId(), "user");
+        sweetRepository.save(Sweet.builder()
+                .name("Timed Ladoo")
+                .category(Sweet.Category.Ladoo)
+                .price(new BigDecimal("4.50"))
+                .quantity(20)
+                .build());
+    }
+    
+    @Test
+    void shouldReportPhasesInServerTimingHeader() throws Exception {
+        mockMvc.perform(get("/api/sweets").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.sweets.length()").value(1))
+                .andExpect(header().string(RequestTimingFilter.HEADER, allOf(
+                        containsString("auth;dur="),
+                        containsString("user;dur="),
+                        containsString("service;dur="),
+                        matchesPattern(".*db;desc=\"[1-9]\\d* queries\";dur=.*"),
+                        containsString("ser;dur="),
+                        containsString("total;dur="))));
+    }
+    
+    @Test
+    void shouldAddHeaderToResponsesWrittenBySecurity() throws Exception {
+        mockMvc.perform(get("/api/sweets"))
+                .andExpect(status().isUnauthorized())
+                .andExpect(header().string(RequestTimingFilter.HEADER, containsString("total;dur=")));
+    }
+}
@@ -0,0 +1,42 @@
+package com.sweetshop.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// With VIRTUAL_THREADS_ENABLED a thread that blocks inside a synchronized block pins its carrier,
+// so locking in our code goes through java.util.concurrent.locks instead
+class VirtualThreadPinningTest {
+    
+    private static final Pattern COMMENTS_AND_STRINGS = Pattern.compile("//[^\\n]*|/\\*.*?\\*/|\"(?:\\\\.|[^\"\\\\])*\"", Pattern.DOTALL);
+    private static final Pattern SYNCHRONIZED = Pattern.compile("\\bsynchronized\\b");
+    
+    @Test
+    void shouldNotUseSynchronizedInMainSources() throws IOException {
+        List<Path> offenders;
+        try (Stream<Path> sources = Files.walk(Path.of("src/main/java"))) {
+            offenders = sources
+                    .filter(path -> path.toString().endsWith(".java"))
+                    .filter(VirtualThreadPinningTest::usesSynchronized)
+                    .toList();
+        }
+        
+        assertEquals(List.of(), offenders);
+    }
+    
+    private static boolean usesSynchronized(Path source) {
+        try {
+            String code = COMMENTS_AND_STRINGS.matcher(Files.readString(source)).replaceAll(" ");
+            return SYNCHRONIZED.matcher(code).find();
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not read " + source, e);
+        }
+    }
+}
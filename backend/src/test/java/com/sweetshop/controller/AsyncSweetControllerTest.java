@@ -0,0 +1,115 @@
+package com.sweetshop.controller;
+
+import com.sweetshop.entity.Sweet;
+import com.sweetshop.entity.User;
+import com.sweetshop.repository.SweetRepository;
+import com.sweetshop.repository.UserRepository;
+import com.sweetshop.security.JwtUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.math.BigDecimal;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class AsyncSweetControllerTest {
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private SweetRepository sweetRepository;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private JwtUtil jwtUtil;
+    
+    private String userToken;
+    private Sweet sweet;
+    
+    @BeforeEach
+    void setUp() {
+        sweetRepository.deleteAll();
+        userRepository.deleteAll();
+        
+        User user = userRepository.save(User.builder()
+                .email("user@example.com")
+                .password("unused")
+                .name("Regular User")
+                .role(User.Role.USER)
+                .build());
+        userToken = jwtUtil.generateToken(user, user.getId(), "user");
+        
+        sweet = sweetRepository.save(Sweet.builder()
+                .name("Async Toffee")
+                .category(Sweet.Category.Candy)
+                .price(new BigDecimal("3.50"))
+                .quantity(40)
+                .build());
+    }
+    
+    @Test
+    void shouldListSweetsAsynchronously() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/async/sweets")
+                        .header("Authorization", "Bearer " + userToken))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.sweets[0].name").value("Async Toffee"))
+                .andExpect(jsonPath("$.pagination.total").value(1));
+    }
+    
+    @Test
+    void shouldSearchSweetsAsynchronously() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/async/sweets/search")
+                        .param("name", "toffee")
+                        .header("Authorization", "Bearer " + userToken))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.sweets[0].id").value(sweet.getId()));
+    }
+    
+    @Test
+    void shouldGetSweetByIdOrReturn404Asynchronously() throws Exception {
+        MvcResult found = mockMvc.perform(get("/api/async/sweets/" + sweet.getId())
+                        .header("Authorization", "Bearer " + userToken))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        
+        mockMvc.perform(asyncDispatch(found))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.sweet.name").value("Async Toffee"));
+        
+        MvcResult missing = mockMvc.perform(get("/api/async/sweets/999999")
+                        .header("Authorization", "Bearer " + userToken))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        
+        mockMvc.perform(asyncDispatch(missing))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.message").value("Sweet not found"));
+    }
+    
+    @Test
+    void shouldReturn401WithoutToken() throws Exception {
+        mockMvc.perform(get("/api/async/sweets"))
+                .andExpect(status().isUnauthorized());
+    }
+}
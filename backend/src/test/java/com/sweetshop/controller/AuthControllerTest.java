@@ -1,7 +1,9 @@
 package com.sweetshop.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sweetshop.config.QueryCounter;
 import com.sweetshop.dto.*;
+import com.sweetshop.entity.User;
 import com.sweetshop.repository.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -9,10 +11,13 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -148,6 +153,34 @@ class AuthControllerTest {
                 .andExpect(jsonPath("$.token").exists());
     }
     
+    @Test
+    void shouldLoginWithinQueryBudget() throws Exception {
+        RegisterRequest registerRequest = RegisterRequest.builder()
+                .email("budget@example.com")
+                .password("password123")
+                .name("Budget User")
+                .build();
+        mockMvc.perform(post("/api/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(registerRequest)))
+                .andExpect(status().isCreated());
+        
+        LoginRequest loginRequest = LoginRequest.builder()
+                .email("budget@example.com")
+                .password("password123")
+                .build();
+        QueryCounter.QueryStats before = QueryCounter.snapshot();
+        mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(loginRequest)))
+                .andExpect(status().isOk());
+        QueryCounter.QueryStats used = QueryCounter.snapshot().minus(before);
+        
+        // At most the one user lookup (none when the details cache has the user); a login never writes
+        assertTrue(used.selects() <= 1, "login ran " + used.selects() + " selects");
+        assertEquals(0, used.inserts() + used.updates() + used.deletes());
+    }
+    
     @Test
     void shouldReturn401ForInvalidCredentials() throws Exception {
         LoginRequest request = LoginRequest.builder()
@@ -162,6 +195,65 @@ class AuthControllerTest {
                 .andExpect(jsonPath("$.message").value("Invalid email or password"));
     }
     
+    @Test
+    void shouldLoginAfterRegisteringPreviouslyUnknownEmail() throws Exception {
+        LoginRequest loginRequest = LoginRequest.builder()
+                .email("later@example.com")
+                .password("password123")
+                .build();
+        
+        // Unknown email is negatively cached
+        mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(loginRequest)))
+                .andExpect(status().isUnauthorized());
+        
+        RegisterRequest registerRequest = RegisterRequest.builder()
+                .email("later@example.com")
+                .password("password123")
+                .name("Later User")
+                .build();
+        
+        mockMvc.perform(post("/api/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(registerRequest)))
+                .andExpect(status().isCreated());
+        
+        mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(loginRequest)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.user.email").value("later@example.com"));
+    }
+    
+    @Test
+    void shouldRehashWeakPasswordOnLogin() throws Exception {
+        userRepository.save(User.builder()
+                .email("legacy@example.com")
+                .password(new BCryptPasswordEncoder(4).encode("password123"))
+                .name("Legacy User")
+                .role(User.Role.USER)
+                .build());
+        
+        LoginRequest loginRequest = LoginRequest.builder()
+                .email("legacy@example.com")
+                .password("password123")
+                .build();
+        
+        mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(loginRequest)))
+                .andExpect(status().isOk());
+        
+        String rehashed = userRepository.findByEmail("legacy@example.com").orElseThrow().getPassword();
+        assertTrue(rehashed.startsWith("$2a$10$"));
+        
+        mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(loginRequest)))
+                .andExpect(status().isOk());
+    }
+    
     @Test
     void shouldGetProfileWithValidToken() throws Exception {
         // Register and get token
@@ -191,4 +283,74 @@ class AuthControllerTest {
         mockMvc.perform(get("/api/auth/profile"))
                 .andExpect(status().isUnauthorized());
     }
+    
+    @Test
+    void shouldRejectTokenAfterLogout() throws Exception {
+        String firstToken = registerAndLogin("logout@example.com");
+        String secondToken = login("logout@example.com");
+        
+        mockMvc.perform(post("/api/auth/logout")
+                        .header("Authorization", "Bearer " + firstToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.message").value("Logged out successfully"));
+        
+        mockMvc.perform(get("/api/auth/profile")
+                        .header("Authorization", "Bearer " + firstToken))
+                .andExpect(status().isUnauthorized());
+        
+        // Other sessions of the same user are unaffected
+        mockMvc.perform(get("/api/auth/profile")
+                        .header("Authorization", "Bearer " + secondToken))
+                .andExpect(status().isOk());
+    }
+    
+    @Test
+    void shouldRejectAllTokensAfterLogoutAll() throws Exception {
+        String firstToken = registerAndLogin("everywhere@example.com");
+        String secondToken = login("everywhere@example.com");
+        
+        mockMvc.perform(post("/api/auth/logout-all")
+                        .header("Authorization", "Bearer " + firstToken))
+                .andExpect(status().isOk());
+        
+        mockMvc.perform(get("/api/auth/profile")
+                        .header("Authorization", "Bearer " + firstToken))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/api/auth/profile")
+                        .header("Authorization", "Bearer " + secondToken))
+                .andExpect(status().isUnauthorized());
+        
+        mockMvc.perform(get("/api/auth/profile")
+                        .header("Authorization", "Bearer " + login("everywhere@example.com")))
+                .andExpect(status().isOk());
+    }
+    
+    private String registerAndLogin(String email) throws Exception {
+        RegisterRequest registerRequest = RegisterRequest.builder()
+                .email(email)
+                .password("password123")
+                .name("Session User")
+                .build();
+        
+        MvcResult result = mockMvc.perform(post("/api/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(registerRequest)))
+                .andExpect(status().isCreated())
+                .andReturn();
+        return objectMapper.readValue(result.getResponse().getContentAsString(), AuthResponse.class).getToken();
+    }
+    
+    private String login(String email) throws Exception {
+        LoginRequest loginRequest = LoginRequest.builder()
+                .email(email)
+                .password("password123")
+                .build();
+        
+        MvcResult result = mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(loginRequest)))
+                .andExpect(status().isOk())
+                .andReturn();
+        return objectMapper.readValue(result.getResponse().getContentAsString(), AuthResponse.class).getToken();
+    }
 }
@@ -0,0 +1,77 @@
+package com.sweetshop.controller;
+
+import com.sweetshop.entity.User;
+import com.sweetshop.repository.UserRepository;
+import com.sweetshop.security.JwtUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class DiagnosticsControllerTest {
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private JwtUtil jwtUtil;
+    
+    private String userToken;
+    private String adminToken;
+    
+    @BeforeEach
+    void setUp() {
+        userRepository.deleteAll();
+        
+        User user = userRepository.save(User.builder()
+                .email("user@example.com")
+                .password("unused")
+                .name("Regular User")
+                .role(User.Role.USER)
+                .build());
+        userToken = jwtUtil.generateToken(user, user.getId(), "user");
+        
+        User admin = userRepository.save(User.builder()
+                .email("admin@example.com")
+                .password("unused")
+                .name("Admin User")
+                .role(User.Role.ADMIN)
+                .build());
+        adminToken = jwtUtil.generateToken(admin, admin.getId(), "admin");
+    }
+    
+    @Test
+    void shouldExposeConcurrencyLimiterState() throws Exception {
+        mockMvc.perform(get("/api/sweets/1")
+                        .header("Authorization", "Bearer " + userToken))
+                .andExpect(status().isNotFound());
+        
+        mockMvc.perform(get("/api/admin/diagnostics")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.concurrencyLimit.limit").isNumber())
+                .andExpect(jsonPath("$.concurrencyLimit.inFlight").value(0))
+                .andExpect(jsonPath("$.concurrencyLimit.priorities.DETAIL_READ.accepted").isNumber())
+                .andExpect(jsonPath("$.concurrencyLimit.priorities.LIST_SEARCH.shed").value(0))
+                .andExpect(jsonPath("$.catalogQueue").value(0));
+    }
+    
+    @Test
+    void shouldReturn403ForNonAdmin() throws Exception {
+        mockMvc.perform(get("/api/admin/diagnostics")
+                        .header("Authorization", "Bearer " + userToken))
+                .andExpect(status().isForbidden());
+    }
+}
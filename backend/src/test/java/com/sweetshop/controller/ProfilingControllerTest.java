@@ -0,0 +1,135 @@
+package com.sweetshop.controller;
+
+import com.sweetshop.entity.User;
+import com.sweetshop.repository.UserRepository;
+import com.sweetshop.security.JwtUtil;
+import com.sweetshop.service.FlightRecordingService;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ProfilingControllerTest {
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private JwtUtil jwtUtil;
+    
+    @Autowired
+    private FlightRecordingService flightRecordingService;
+    
+    private String userToken;
+    private String adminToken;
+    
+    @BeforeEach
+    void setUp() {
+        userRepository.deleteAll();
+        
+        User user = userRepository.save(User.builder()
+                .email("user@example.com")
+                .password("unused")
+                .name("Regular User")
+                .role(User.Role.USER)
+                .build());
+        userToken = jwtUtil.generateToken(user, user.getId(), "user");
+        
+        User admin = userRepository.save(User.builder()
+                .email("admin@example.com")
+                .password("unused")
+                .name("Admin User")
+                .role(User.Role.ADMIN)
+                .build());
+        adminToken = jwtUtil.generateToken(admin, admin.getId(), "admin");
+    }
+    
+    @AfterEach
+    void tearDown() {
+        flightRecordingService.discard();
+    }
+    
+    @Test
+    void shouldRecordDomainEventsAndReturnJfrFile() throws Exception {
+        mockMvc.perform(post("/api/admin/profiling/recording/start?settings=default&durationSeconds=60")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.state").value("RUNNING"));
+        
+        mockMvc.perform(post("/api/admin/profiling/recording/start")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isConflict());
+        
+        mockMvc.perform(get("/api/sweets/search?name=ladoo")
+                        .header("Authorization", "Bearer " + userToken))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/api/sweets/99999/purchase")
+                        .header("Authorization", "Bearer " + userToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"quantity\":1}"))
+                .andExpect(status().isNotFound());
+        
+        MvcResult stopped = mockMvc.perform(post("/api/admin/profiling/recording/stop")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        byte[] jfr = mockMvc.perform(asyncDispatch(stopped))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", MediaType.APPLICATION_OCTET_STREAM_VALUE))
+                .andReturn()
+                .getResponse()
+                .getContentAsByteArray();
+        
+        Path file = Files.createTempFile("profiling-test", ".jfr");
+        try {
+            Files.write(file, jfr);
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+            Set<String> types = events.stream().map(event -> event.getEventType().getName()).collect(Collectors.toSet());
+            assertTrue(types.containsAll(Set.of("sweetshop.Search", "sweetshop.Purchase", "sweetshop.TokenValidation")),
+                    "recorded event types: " + types);
+            assertTrue(events.stream()
+                    .filter(event -> event.getEventType().getName().equals("sweetshop.Purchase"))
+                    .anyMatch(event -> event.getLong("sweetId") == 99999 && "not_found".equals(event.getString("outcome"))));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+    
+    @Test
+    void shouldReturn409WhenNoRecordingIsRunning() throws Exception {
+        mockMvc.perform(post("/api/admin/profiling/recording/stop")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isConflict());
+    }
+    
+    @Test
+    void shouldReturn403ForNonAdmin() throws Exception {
+        mockMvc.perform(post("/api/admin/profiling/recording/start")
+                        .header("Authorization", "Bearer " + userToken))
+                .andExpect(status().isForbidden());
+    }
+}
@@ -0,0 +1,177 @@
+package com.sweetshop.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sweetshop.dto.*;
+import com.sweetshop.entity.StockAlert;
+import com.sweetshop.entity.Sweet;
+import com.sweetshop.entity.User;
+import com.sweetshop.repository.StockAlertRepository;
+import com.sweetshop.repository.StockThresholdRepository;
+import com.sweetshop.repository.SweetRepository;
+import com.sweetshop.repository.UserRepository;
+import com.sweetshop.security.JwtUtil;
+import com.sweetshop.service.StockAlertService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class StockAlertControllerTest {
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private SweetRepository sweetRepository;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private StockAlertRepository stockAlertRepository;
+    
+    @Autowired
+    private StockThresholdRepository stockThresholdRepository;
+    
+    @Autowired
+    private StockAlertService stockAlertService;
+    
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+    
+    @Autowired
+    private JwtUtil jwtUtil;
+    
+    private String userToken;
+    private String adminToken;
+    
+    @BeforeEach
+    void setUp() {
+        stockAlertRepository.deleteAll();
+        stockThresholdRepository.deleteAll();
+        stockAlertService.loadThresholds();
+        sweetRepository.deleteAll();
+        userRepository.deleteAll();
+        
+        User user = userRepository.save(User.builder()
+                .email("user@example.com")
+                .password(passwordEncoder.encode("password123"))
+                .name("Regular User")
+                .role(User.Role.USER)
+                .build());
+        userToken = jwtUtil.generateToken(user, user.getId(), "user");
+        
+        User admin = userRepository.save(User.builder()
+                .email("admin@example.com")
+                .password(passwordEncoder.encode("password123"))
+                .name("Admin User")
+                .role(User.Role.ADMIN)
+                .build());
+        adminToken = jwtUtil.generateToken(admin, admin.getId(), "admin");
+    }
+    
+    @Test
+    void shouldRaiseAlertWhenPurchaseCrossesThreshold() throws Exception {
+        Sweet sweet = createTestSweet("Alert Test", 20);
+        
+        StockThresholdRequest threshold = StockThresholdRequest.builder()
+                .sweetId(sweet.getId())
+                .threshold(10)
+                .build();
+        
+        mockMvc.perform(put("/api/admin/alerts/thresholds")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(threshold)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.threshold.threshold").value(10));
+        
+        purchase(sweet, 5);
+        purchase(sweet, 6);
+        purchase(sweet, 1);
+        
+        List<StockAlert> alerts = waitForAlerts(1);
+        assertEquals(9, alerts.get(0).getQuantity());
+        assertEquals(10, alerts.get(0).getThreshold());
+        
+        mockMvc.perform(get("/api/admin/alerts")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .param("acknowledged", "false"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.alerts.length()").value(1))
+                .andExpect(jsonPath("$.alerts[0].sweetName").value("Alert Test"));
+        
+        mockMvc.perform(post("/api/admin/alerts/" + alerts.get(0).getId() + "/acknowledge")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.alert.acknowledged").value(true))
+                .andExpect(jsonPath("$.alert.acknowledgedBy").value("admin@example.com"));
+    }
+    
+    @Test
+    void shouldReturn400ForThresholdWithoutTarget() throws Exception {
+        StockThresholdRequest threshold = StockThresholdRequest.builder()
+                .threshold(10)
+                .build();
+        
+        mockMvc.perform(put("/api/admin/alerts/thresholds")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(threshold)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Provide either a sweetId or a category"));
+    }
+    
+    @Test
+    void shouldReturn403ForNonAdminAlerts() throws Exception {
+        mockMvc.perform(get("/api/admin/alerts")
+                        .header("Authorization", "Bearer " + userToken))
+                .andExpect(status().isForbidden());
+    }
+    
+    private void purchase(Sweet sweet, int quantity) throws Exception {
+        mockMvc.perform(post("/api/sweets/" + sweet.getId() + "/purchase")
+                        .header("Authorization", "Bearer " + userToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(QuantityRequest.builder().quantity(quantity).build())))
+                .andExpect(status().isOk());
+    }
+    
+    private List<StockAlert> waitForAlerts(int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        List<StockAlert> alerts = stockAlertRepository.findAll();
+        while (alerts.size() < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            alerts = stockAlertRepository.findAll();
+        }
+        assertEquals(expected, alerts.size());
+        return alerts;
+    }
+    
+    private Sweet createTestSweet(String name, int quantity) {
+        return sweetRepository.save(Sweet.builder()
+                .name(name)
+                .category(Sweet.Category.Candy)
+                .price(new BigDecimal("2.99"))
+                .quantity(quantity)
+                .build());
+    }
+}
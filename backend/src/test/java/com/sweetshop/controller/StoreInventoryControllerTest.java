@@ -0,0 +1,212 @@
+package com.sweetshop.controller;
+
+import com.sweetshop.entity.Store;
+import com.sweetshop.entity.Sweet;
+import com.sweetshop.entity.User;
+import com.sweetshop.repository.StoreRepository;
+import com.sweetshop.repository.SweetRepository;
+import com.sweetshop.repository.UserRepository;
+import com.sweetshop.security.JwtUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = {
+        "inventory-shards.urls=" + StoreInventoryControllerTest.SHARD_0 + "," + StoreInventoryControllerTest.SHARD_1,
+        "inventory-shards.migrate=true"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class StoreInventoryControllerTest {
+    
+    static final String SHARD_0 = "jdbc:h2:mem:inventory-shard-0;DB_CLOSE_DELAY=-1";
+    static final String SHARD_1 = "jdbc:h2:mem:inventory-shard-1;DB_CLOSE_DELAY=-1";
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private SweetRepository sweetRepository;
+    
+    @Autowired
+    private StoreRepository storeRepository;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private JwtUtil jwtUtil;
+    
+    private String adminToken;
+    private String userToken;
+    private Sweet sweet;
+    private Store evenStore;
+    private Store oddStore;
+    
+    @BeforeEach
+    void setUp() throws SQLException {
+        sweetRepository.deleteAll();
+        storeRepository.deleteAll();
+        userRepository.deleteAll();
+        for (String shard : new String[]{SHARD_0, SHARD_1}) {
+            try (Connection connection = DriverManager.getConnection(shard, "sa", "")) {
+                connection.createStatement().execute("DELETE FROM store_stock");
+            }
+        }
+        
+        User admin = userRepository.save(User.builder()
+                .email("admin@example.com")
+                .password("unused")
+                .name("Admin")
+                .role(User.Role.ADMIN)
+                .build());
+        adminToken = jwtUtil.generateToken(admin, admin.getId(), "admin");
+        
+        User user = userRepository.save(User.builder()
+                .email("user@example.com")
+                .password("unused")
+                .name("Regular User")
+                .role(User.Role.USER)
+                .build());
+        userToken = jwtUtil.generateToken(user, user.getId(), "user");
+        
+        sweet = sweetRepository.save(Sweet.builder()
+                .name("Store Fudge")
+                .category(Sweet.Category.Candy)
+                .price(new BigDecimal("2.00"))
+                .quantity(50)
+                .build());
+        
+        // Consecutive ids land on different shards
+        Store first = storeRepository.save(Store.builder().name("Downtown").build());
+        Store second = storeRepository.save(Store.builder().name("Harbour").build());
+        evenStore = first.getId() % 2 == 0 ? first : second;
+        oddStore = first.getId() % 2 == 0 ? second : first;
+    }
+    
+    @Test
+    void shouldKeepStoreStockOnOwningShard() throws Exception {
+        restock(evenStore, 10);
+        restock(oddStore, 4);
+        
+        assertEquals(10, shardQuantity(SHARD_0, evenStore));
+        assertEquals(-1, shardQuantity(SHARD_1, evenStore));
+        assertEquals(4, shardQuantity(SHARD_1, oddStore));
+        assertEquals(-1, shardQuantity(SHARD_0, oddStore));
+        
+        mockMvc.perform(post("/api/sweets/" + sweet.getId() + "/purchase")
+                        .header("Authorization", "Bearer " + userToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"quantity\": 3, \"storeId\": " + oddStore.getId() + "}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.storeId").value(oddStore.getId()))
+                .andExpect(jsonPath("$.storeQuantity").value(1))
+                .andExpect(jsonPath("$.sweet.quantity").value(50));
+        
+        assertEquals(1, shardQuantity(SHARD_1, oddStore));
+        assertEquals(50, sweetRepository.findById(sweet.getId()).orElseThrow().getQuantity());
+    }
+    
+    @Test
+    void shouldRejectStorePurchaseBeyondStoreStock() throws Exception {
+        restock(evenStore, 2);
+        
+        mockMvc.perform(post("/api/sweets/" + sweet.getId() + "/purchase")
+                        .header("Authorization", "Bearer " + userToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"quantity\": 5, \"storeId\": " + evenStore.getId() + "}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.available").value(2));
+        
+        mockMvc.perform(post("/api/sweets/" + sweet.getId() + "/purchase")
+                        .header("Authorization", "Bearer " + userToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"quantity\": 1, \"storeId\": 999999}"))
+                .andExpect(status().isNotFound());
+    }
+    
+    @Test
+    void shouldAggregateAvailabilityAcrossShards() throws Exception {
+        restock(evenStore, 10);
+        restock(oddStore, 4);
+        
+        mockMvc.perform(get("/api/sweets/" + sweet.getId() + "/availability")
+                        .header("Authorization", "Bearer " + userToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalQuantity").value(14))
+                .andExpect(jsonPath("$.stores.length()").value(2))
+                .andExpect(jsonPath("$.stores[?(@.storeName == 'Downtown')]").exists())
+                .andExpect(jsonPath("$.complete").value(true));
+    }
+    
+    @Test
+    void shouldAnswerConcurrentAvailabilityRequestsCompletely() throws Exception {
+        restock(evenStore, 10);
+        restock(oddStore, 4);
+        
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> requests = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                requests.add(executor.submit(() -> mockMvc.perform(get("/api/sweets/" + sweet.getId() + "/availability")
+                                .header("Authorization", "Bearer " + userToken))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.totalQuantity").value(14))
+                        .andExpect(jsonPath("$.complete").value(true))));
+            }
+            for (Future<?> request : requests) {
+                request.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+    
+    @Test
+    void shouldRequireAdminForStoreRestock() throws Exception {
+        mockMvc.perform(post("/api/sweets/" + sweet.getId() + "/restock")
+                        .header("Authorization", "Bearer " + userToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"quantity\": 5, \"storeId\": " + evenStore.getId() + "}"))
+                .andExpect(status().isForbidden());
+    }
+    
+    private void restock(Store store, int quantity) throws Exception {
+        mockMvc.perform(post("/api/sweets/" + sweet.getId() + "/restock")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"quantity\": " + quantity + ", \"storeId\": " + store.getId() + "}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.storeQuantity").value(quantity));
+    }
+    
+    private int shardQuantity(String shard, Store store) throws SQLException {
+        try (Connection connection = DriverManager.getConnection(shard, "sa", "");
+             ResultSet rs = connection.createStatement().executeQuery(
+                     "SELECT quantity FROM store_stock WHERE store_id = " + store.getId()
+                             + " AND sweet_id = " + sweet.getId())) {
+            return rs.next() ? rs.getInt(1) : -1;
+        }
+    }
+}
@@ -1,12 +1,16 @@
 package com.sweetshop.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sweetshop.config.QueryCounter;
 import com.sweetshop.dto.*;
 import com.sweetshop.entity.Sweet;
 import com.sweetshop.entity.User;
+import com.sweetshop.event.LockWait;
 import com.sweetshop.repository.SweetRepository;
 import com.sweetshop.repository.UserRepository;
 import com.sweetshop.security.JwtUtil;
+import com.sweetshop.service.SweetService;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -16,9 +20,19 @@ import org.springframework.http.MediaType;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -45,6 +59,12 @@ class SweetControllerTest {
     @Autowired
     private JwtUtil jwtUtil;
     
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Autowired
+    private SweetService sweetService;
+    
     private String userToken;
     private String adminToken;
     
@@ -85,7 +105,7 @@ class SweetControllerTest {
                 .build();
         
         mockMvc.perform(post("/api/sweets")
-                        .header("Authorization", "Bearer " + userToken)
+                        .header("Authorization", "Bearer " + adminToken)
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(request)))
                 .andExpect(status().isCreated())
@@ -114,7 +134,7 @@ class SweetControllerTest {
                 .build();
         
         mockMvc.perform(post("/api/sweets")
-                        .header("Authorization", "Bearer " + userToken)
+                        .header("Authorization", "Bearer " + adminToken)
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(request)))
                 .andExpect(status().isBadRequest())
@@ -149,6 +169,27 @@ class SweetControllerTest {
                 .andExpect(jsonPath("$.pagination").exists());
     }
     
+    @Test
+    void shouldListPageWithinQueryBudget() throws Exception {
+        for (int i = 0; i < 25; i++) {
+            createTestSweet("Budget Sweet " + i, Sweet.Category.Candy, "1.99", 10);
+        }
+        // Loads the user into the details cache so only the catalog queries are measured
+        mockMvc.perform(get("/api/sweets").header("Authorization", "Bearer " + userToken))
+                .andExpect(status().isOk());
+        
+        QueryCounter.QueryStats before = QueryCounter.snapshot();
+        mockMvc.perform(get("/api/sweets?page=2&limit=10")
+                        .header("Authorization", "Bearer " + userToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.sweets.length()").value(10));
+        QueryCounter.QueryStats used = QueryCounter.snapshot().minus(before);
+        
+        // One page query plus one count, however many sweets are on the page
+        assertEquals(2, used.selects());
+        assertEquals(2, used.total());
+    }
+    
     @Test
     void shouldSearchByName() throws Exception {
         createTestSweet("Dark Chocolate", Sweet.Category.Chocolate, "4.99", 30);
@@ -265,6 +306,99 @@ class SweetControllerTest {
                 .andExpect(jsonPath("$.available").value(5));
     }
     
+    @Test
+    void shouldPurchaseWithSingleUpdate() throws Exception {
+        Sweet sweet = createTestSweet("Single Update", Sweet.Category.Candy, "2.99", 10);
+        
+        QueryCounter.QueryStats before = QueryCounter.snapshot();
+        mockMvc.perform(post("/api/sweets/" + sweet.getId() + "/purchase")
+                        .header("Authorization", "Bearer " + userToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"quantity\":1}"))
+                .andExpect(status().isOk());
+        QueryCounter.QueryStats used = QueryCounter.snapshot().minus(before);
+        
+        assertEquals(1, used.updates());
+        assertEquals(0, used.deletes());
+    }
+    
+    @Test
+    void shouldNotOversellUnderConcurrentPurchases() throws Exception {
+        Sweet sweet = createTestSweet("Contended", Sweet.Category.Candy, "2.99", 5);
+        int buyers = 12;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(buyers);
+        
+        try {
+            List<Future<Boolean>> purchases = new ArrayList<>();
+            for (int i = 0; i < buyers; i++) {
+                purchases.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        sweetService.purchaseSweet(sweet.getId(), 1);
+                        return true;
+                    } catch (SweetService.InsufficientStockException e) {
+                        return false;
+                    }
+                }));
+            }
+            start.countDown();
+            
+            int sold = 0;
+            for (Future<Boolean> purchase : purchases) {
+                if (purchase.get(30, TimeUnit.SECONDS)) {
+                    sold++;
+                }
+            }
+            assertEquals(5, sold);
+            assertEquals(0, sweetRepository.findById(sweet.getId()).orElseThrow().getQuantity());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+    
+    @Test
+    void shouldTimeRowLockForPurchase() {
+        Sweet sweet = createTestSweet("Timed", Sweet.Category.Candy, "2.99", 5);
+        
+        long before = LockWait.snapshot();
+        sweetService.purchaseSweet(sweet.getId(), 1);
+        
+        assertTrue(LockWait.snapshot() > before);
+    }
+    
+    @Test
+    void shouldCountPurchaseOutcomes() throws Exception {
+        Sweet sweet = createTestSweet("Counted", Sweet.Category.Candy, "2.99", 5);
+        double succeeded = purchaseCount("success");
+        double insufficient = purchaseCount("insufficient_stock");
+        double notFound = purchaseCount("not_found");
+        
+        mockMvc.perform(post("/api/sweets/" + sweet.getId() + "/purchase")
+                        .header("Authorization", "Bearer " + userToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"quantity\":2}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/api/sweets/" + sweet.getId() + "/purchase")
+                        .header("Authorization", "Bearer " + userToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"quantity\":10}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/sweets/99999/purchase")
+                        .header("Authorization", "Bearer " + userToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"quantity\":1}"))
+                .andExpect(status().isNotFound());
+        
+        assertEquals(succeeded + 1, purchaseCount("success"));
+        assertEquals(insufficient + 1, purchaseCount("insufficient_stock"));
+        assertEquals(notFound + 1, purchaseCount("not_found"));
+    }
+    
+    private double purchaseCount(String outcome) {
+        return meterRegistry.counter("sweetshop.purchases", "outcome", outcome).count();
+    }
+    
     @Test
     void shouldRestockSweetAsAdmin() throws Exception {
         Sweet sweet = createTestSweet("Restock Test", Sweet.Category.Candy, "2.99", 10);
@@ -298,6 +432,37 @@ class SweetControllerTest {
                 .andExpect(status().isForbidden());
     }
     
+    @Test
+    void shouldStreamStockUpdatesAfterPurchase() throws Exception {
+        Sweet sweet = createTestSweet("Stream Test", Sweet.Category.Candy, "2.99", 10);
+        
+        MvcResult stream = mockMvc.perform(get("/api/sweets/stream")
+                        .header("Authorization", "Bearer " + userToken))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        
+        QuantityRequest request = QuantityRequest.builder()
+                .quantity(4)
+                .build();
+        
+        mockMvc.perform(post("/api/sweets/" + sweet.getId() + "/purchase")
+                        .header("Authorization", "Bearer " + userToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk());
+        
+        String expected = "\"id\":" + sweet.getId() + ",\"quantity\":6";
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!stream.getResponse().getContentAsString().contains(expected)
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        
+        String body = stream.getResponse().getContentAsString();
+        assertTrue(body.contains("event:stock"));
+        assertTrue(body.contains(expected));
+    }
+    
     private Sweet createTestSweet(String name, Sweet.Category category, String price, int quantity) {
         Sweet sweet = Sweet.builder()
                 .name(name)
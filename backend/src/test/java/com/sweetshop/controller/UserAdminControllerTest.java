@@ -0,0 +1,174 @@
+package com.sweetshop.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sweetshop.dto.*;
+import com.sweetshop.entity.User;
+import com.sweetshop.repository.UserRepository;
+import com.sweetshop.security.JwtUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Arrays;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = "jwt.stateless-auth=true")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class UserAdminControllerTest {
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+    
+    @Autowired
+    private JwtUtil jwtUtil;
+    
+    private User user;
+    private String userToken;
+    private String adminToken;
+    
+    @BeforeEach
+    void setUp() {
+        userRepository.deleteAll();
+        
+        user = userRepository.save(User.builder()
+                .email("user@example.com")
+                .password(passwordEncoder.encode("password123"))
+                .name("Regular User")
+                .role(User.Role.USER)
+                .build());
+        userToken = jwtUtil.generateToken(user, user.getId(), "user");
+        
+        User admin = userRepository.save(User.builder()
+                .email("admin@example.com")
+                .password(passwordEncoder.encode("password123"))
+                .name("Admin User")
+                .role(User.Role.ADMIN)
+                .build());
+        adminToken = jwtUtil.generateToken(admin, admin.getId(), "admin");
+    }
+    
+    @Test
+    void shouldAuthenticateFromTokenClaims() throws Exception {
+        mockMvc.perform(get("/api/auth/profile")
+                        .header("Authorization", "Bearer " + userToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.user.email").value("user@example.com"));
+    }
+    
+    @Test
+    void shouldRejectTokensIssuedBeforeRoleChange() throws Exception {
+        mockMvc.perform(put("/api/admin/users/" + user.getId() + "/role")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new RoleUpdateRequest("admin"))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.user.role").value("admin"));
+        
+        mockMvc.perform(get("/api/auth/profile")
+                        .header("Authorization", "Bearer " + userToken))
+                .andExpect(status().isUnauthorized());
+        
+        LoginRequest loginRequest = LoginRequest.builder()
+                .email("user@example.com")
+                .password("password123")
+                .build();
+        
+        String response = mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(loginRequest)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        String newToken = objectMapper.readValue(response, AuthResponse.class).getToken();
+        
+        mockMvc.perform(get("/api/admin/alerts")
+                        .header("Authorization", "Bearer " + newToken))
+                .andExpect(status().isOk());
+    }
+    
+    @Test
+    void shouldReturn400ForInvalidRole() throws Exception {
+        mockMvc.perform(put("/api/admin/users/" + user.getId() + "/role")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new RoleUpdateRequest("owner"))))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Invalid role"));
+    }
+    
+    @Test
+    void shouldReturn403ForNonAdminRoleChange() throws Exception {
+        mockMvc.perform(put("/api/admin/users/" + user.getId() + "/role")
+                        .header("Authorization", "Bearer " + userToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new RoleUpdateRequest("admin"))))
+                .andExpect(status().isForbidden());
+    }
+    
+    @Test
+    void shouldBulkRegisterUsersWithPerRowReport() throws Exception {
+        BulkRegisterRequest request = new BulkRegisterRequest(Arrays.asList(
+                new RegisterRequest("Staff1@example.com", "password123", "Staff One", null),
+                new RegisterRequest("user@example.com", "password123", "Existing User", null),
+                new RegisterRequest("not-an-email", "password123", "Bad Email", null),
+                new RegisterRequest("staff1@example.com", "password123", "Staff Again", null),
+                new RegisterRequest("staff2@example.com", "password123", "Staff Two", "admin")));
+        
+        mockMvc.perform(post("/api/admin/users/bulk")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(2))
+                .andExpect(jsonPath("$.duplicates").value(2))
+                .andExpect(jsonPath("$.invalid").value(1))
+                .andExpect(jsonPath("$.results[0].status").value("CREATED"))
+                .andExpect(jsonPath("$.results[0].email").value("staff1@example.com"))
+                .andExpect(jsonPath("$.results[0].id").exists())
+                .andExpect(jsonPath("$.results[1].status").value("DUPLICATE"))
+                .andExpect(jsonPath("$.results[2].status").value("INVALID"))
+                .andExpect(jsonPath("$.results[2].message").value("Please provide a valid email"))
+                .andExpect(jsonPath("$.results[3].status").value("DUPLICATE"))
+                .andExpect(jsonPath("$.results[4].status").value("CREATED"));
+        
+        LoginRequest loginRequest = LoginRequest.builder()
+                .email("staff2@example.com")
+                .password("password123")
+                .build();
+        
+        mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(loginRequest)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.user.role").value("admin"));
+    }
+    
+    @Test
+    void shouldReturn403ForNonAdminBulkRegister() throws Exception {
+        BulkRegisterRequest request = new BulkRegisterRequest(Arrays.asList(
+                new RegisterRequest("staff@example.com", "password123", "Staff", null)));
+        
+        mockMvc.perform(post("/api/admin/users/bulk")
+                        .header("Authorization", "Bearer " + userToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isForbidden());
+    }
+}
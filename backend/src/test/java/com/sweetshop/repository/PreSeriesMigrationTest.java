@@ -0,0 +1,74 @@
+package com.sweetshop.repository;
+
+import com.sweetshop.SweetShopApplication;
+import com.sweetshop.entity.Sweet;
+import com.sweetshop.entity.User;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.MigrationInfo;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Upgrades a database as the old ddl-auto=update setup left it, with only users and sweets and no
+// migration history: it must be baselined at 1, take the later scripts, and pass Hibernate's validation
+class PreSeriesMigrationTest {
+    
+    private static final String URL = "jdbc:h2:mem:pre-series;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+    
+    @Test
+    void shouldUpgradeSchemaCreatedBeforeMigrations() throws SQLException {
+        createPreSeriesSchema();
+        
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(SweetShopApplication.class)
+                .profiles("test")
+                .run("--server.port=0",
+                        "--spring.datasource.url=" + URL,
+                        "--spring.flyway.enabled=true",
+                        "--spring.jpa.hibernate.ddl-auto=validate",
+                        "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.MySQLDialect")) {
+            Flyway flyway = context.getBean(Flyway.class);
+            List<String> applied = Arrays.stream(flyway.info().applied())
+                    .map(MigrationInfo::getVersion)
+                    .map(Object::toString)
+                    .toList();
+            assertEquals(List.of("1", "2", "3", "4"), applied);
+            assertEquals("<< Flyway Baseline >>", flyway.info().applied()[0].getDescription());
+            flyway.validate();
+            
+            // Rows from before the upgrade survive and pick up the new column's default
+            User user = context.getBean(UserRepository.class).findByEmail("old@example.com").orElseThrow();
+            assertEquals(0, user.getTokenVersion());
+            Sweet sweet = context.getBean(SweetRepository.class).findByName("Old Fudge").orElseThrow();
+            assertEquals(3, sweet.getQuantity());
+        }
+    }
+    
+    // The two tables as the application created them before the series of changes that added migrations
+    private static void createPreSeriesSchema() throws SQLException {
+        try (Connection connection = DriverManager.getConnection(URL, "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.execute("create table users (id bigint not null auto_increment, email varchar(255) not null, "
+                    + "password varchar(255) not null, name varchar(255) not null, role enum ('USER','ADMIN') not null, "
+                    + "created_at datetime(6), updated_at datetime(6), primary key (id), constraint uk_users_email unique (email))");
+            statement.execute("create table sweets (id bigint not null auto_increment, name varchar(255) not null, "
+                    + "category enum ('Chocolate','Candy','Cake','Cookie','Pastry','Ice_Cream','Ladoo','Barfi','Halwa',"
+                    + "'Rasgulla','Gulab_Jamun','Kheer','Peda','Jalebi','Bengali_Sweets','Dry_Sweets','Milk_Sweets','Namkeen',"
+                    + "'Beverages','Bakery','Snacks','Other') not null, price decimal(10,2) not null, quantity integer not null, "
+                    + "description varchar(500), image_url varchar(255), created_at datetime(6), updated_at datetime(6), "
+                    + "primary key (id), constraint uk_sweets_name unique (name))");
+            statement.execute("insert into users (email, password, name, role, created_at) "
+                    + "values ('old@example.com', 'unused', 'Old User', 'USER', current_timestamp)");
+            statement.execute("insert into sweets (name, category, price, quantity, created_at) "
+                    + "values ('Old Fudge', 'Candy', 2.50, 3, current_timestamp)");
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.sweetshop.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedPasswordEncoderTest {
+    
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final ExecutorService callers = Executors.newFixedThreadPool(2);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private BoundedPasswordEncoder encoder;
+    
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        callers.shutdownNow();
+        if (encoder != null) {
+            encoder.shutdown();
+        }
+    }
+    
+    @Test
+    void shouldEncodeAndMatchThroughPool() {
+        encoder = new BoundedPasswordEncoder(new BCryptPasswordEncoder(4), 2, 4, 5000, 60000, meterRegistry);
+        
+        String hash = encoder.encode("password123");
+        
+        assertTrue(encoder.matches("password123", hash));
+        assertFalse(encoder.matches("wrong", hash));
+        assertEquals(1, meterRegistry.get("sweetshop.password.hash").tag("operation", "encode").timer().count());
+        assertEquals(2, meterRegistry.get("sweetshop.password.hash").tag("operation", "matches").timer().count());
+    }
+    
+    @Test
+    void shouldFailFastWhenQueueIsFull() throws Exception {
+        encoder = new BoundedPasswordEncoder(blockingEncoder(), 1, 1, 5000, 60000, meterRegistry);
+        
+        // One task occupies the only thread, the next fills the queue
+        callers.submit(() -> encoder.encode("first"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        callers.submit(() -> encoder.encode("second"));
+        while (encoder.getQueuedTasks() < 1) {
+            Thread.sleep(5);
+        }
+        
+        long begin = System.nanoTime();
+        assertThrows(BoundedPasswordEncoder.HashingBusyException.class, () -> encoder.encode("third"));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - begin) < 1000);
+    }
+    
+    @Test
+    void shouldGiveUpWhenHashingTakesTooLong() throws Exception {
+        encoder = new BoundedPasswordEncoder(blockingEncoder(), 1, 1, 100, 60000, meterRegistry);
+        
+        assertThrows(BoundedPasswordEncoder.HashingBusyException.class, () -> encoder.encode("slow"));
+    }
+    
+    @Test
+    void shouldEncodeBatchInOrder() {
+        encoder = new BoundedPasswordEncoder(new BCryptPasswordEncoder(4), 2, 4, 5000, 60000, meterRegistry);
+        List<String> passwords = List.of("one", "two", "three", "four", "five");
+        
+        List<String> hashes = encoder.encodeAll(passwords);
+        
+        assertEquals(passwords.size(), hashes.size());
+        for (int i = 0; i < passwords.size(); i++) {
+            assertTrue(encoder.matches(passwords.get(i), hashes.get(i)));
+        }
+    }
+    
+    @Test
+    void shouldLeaveThreadsForLoginsDuringBatch() throws Exception {
+        // Batch passwords block, so the batch holds every thread it is allowed to use
+        PasswordEncoder delegate = new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                if (rawPassword.toString().startsWith("bulk")) {
+                    return blockingEncoder().encode(rawPassword);
+                }
+                return rawPassword.toString();
+            }
+            
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                return rawPassword.toString().equals(encodedPassword);
+            }
+        };
+        encoder = new BoundedPasswordEncoder(delegate, 2, 8, 5000, 60000, meterRegistry);
+        
+        Future<List<String>> batch = callers.submit(() -> encoder.encodeAll(List.of("bulk-1", "bulk-2", "bulk-3", "bulk-4")));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        
+        long begin = System.nanoTime();
+        assertEquals("login", encoder.encode("login"));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - begin) < 1000);
+        
+        release.countDown();
+        assertEquals(List.of("bulk-1", "bulk-2", "bulk-3", "bulk-4"), batch.get(5, TimeUnit.SECONDS));
+    }
+    
+    @Test
+    void shouldBoundTotalBatchWait() {
+        encoder = new BoundedPasswordEncoder(blockingEncoder(), 2, 8, 5000, 200, meterRegistry);
+        
+        long begin = System.nanoTime();
+        assertThrows(BoundedPasswordEncoder.HashingBusyException.class,
+                () -> encoder.encodeAll(List.of("a", "b", "c", "d")));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - begin) < 2000);
+    }
+    
+    private PasswordEncoder blockingEncoder() {
+        return new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return rawPassword.toString();
+            }
+            
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                return rawPassword.toString().equals(encodedPassword);
+            }
+        };
+    }
+}
@@ -0,0 +1,76 @@
+package com.sweetshop.security;
+
+import com.sweetshop.entity.User;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtUtilTest {
+    
+    private static final String SECRET = "test-jwt-secret-key-for-testing-purposes-only";
+    
+    @Test
+    void shouldServeRepeatParseFromCache() {
+        JwtUtil jwtUtil = new JwtUtil(SECRET, 60_000, 100);
+        String token = tokenFor(jwtUtil, "user@example.com");
+        
+        Claims first = jwtUtil.parseToken(token);
+        Claims second = jwtUtil.parseToken(token);
+        
+        assertSame(first, second);
+        assertEquals("user@example.com", second.getSubject());
+        assertEquals(1, jwtUtil.getCachedTokenCount());
+    }
+    
+    @Test
+    void shouldNotServeExpiredTokenFromCache() throws InterruptedException {
+        JwtUtil jwtUtil = new JwtUtil(SECRET, 1500, 100);
+        String token = tokenFor(jwtUtil, "user@example.com");
+        Claims claims = jwtUtil.parseToken(token);
+        assertEquals(1, jwtUtil.getCachedTokenCount());
+        
+        // exp has second precision, so wait for the claim itself rather than the configured lifetime
+        long untilExpiry = claims.getExpiration().getTime() - System.currentTimeMillis();
+        Thread.sleep(Math.max(0, untilExpiry) + 50);
+        
+        assertThrows(ExpiredJwtException.class, () -> jwtUtil.parseToken(token));
+        assertEquals(0, jwtUtil.getCachedTokenCount());
+    }
+    
+    @Test
+    void shouldEvictAtSizeBound() {
+        JwtUtil jwtUtil = new JwtUtil(SECRET, 60_000, 10);
+        
+        String last = null;
+        for (int i = 0; i < 25; i++) {
+            last = tokenFor(jwtUtil, "user" + i + "@example.com");
+            jwtUtil.parseToken(last);
+            assertTrue(jwtUtil.getCachedTokenCount() <= 10);
+        }
+        
+        // The newest token is always kept after an eviction
+        assertSame(jwtUtil.parseToken(last), jwtUtil.parseToken(last));
+        assertEquals(10, jwtUtil.getCachedTokenCount());
+    }
+    
+    @Test
+    void shouldVerifyEveryTimeWhenCacheDisabled() {
+        JwtUtil jwtUtil = new JwtUtil(SECRET, 60_000, 0);
+        String token = tokenFor(jwtUtil, "user@example.com");
+        
+        assertNotSame(jwtUtil.parseToken(token), jwtUtil.parseToken(token));
+        assertEquals(0, jwtUtil.getCachedTokenCount());
+    }
+    
+    private static String tokenFor(JwtUtil jwtUtil, String email) {
+        User user = User.builder()
+                .id(1L)
+                .email(email)
+                .password("unused")
+                .name("Test User")
+                .build();
+        return jwtUtil.generateToken(user, user.getId(), "user");
+    }
+}
@@ -0,0 +1,129 @@
+package com.sweetshop.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sweetshop.dto.LoginRequest;
+import com.sweetshop.entity.User;
+import com.sweetshop.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = {
+        "rate-limit.enabled=true",
+        "rate-limit.auth.capacity=2",
+        "rate-limit.auth.refill-per-second=0.01",
+        "rate-limit.catalog.capacity=3",
+        "rate-limit.catalog.refill-per-second=0.01"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class RateLimitFilterTest {
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private JwtUtil jwtUtil;
+    
+    private String firstToken;
+    private String secondToken;
+    
+    @BeforeEach
+    void setUp() {
+        userRepository.deleteAll();
+        firstToken = tokenFor("first@example.com");
+        secondToken = tokenFor("second@example.com");
+    }
+    
+    @Test
+    void shouldReturn429WithRetryAfterWhenAuthBucketIsEmpty() throws Exception {
+        LoginRequest request = LoginRequest.builder()
+                .email("nobody@example.com")
+                .password("password123")
+                .build();
+        
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(post("/api/auth/login")
+                            .with(remote("10.0.0.1"))
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(request)))
+                    .andExpect(status().isUnauthorized())
+                    .andExpect(header().string("X-RateLimit-Limit", "2"))
+                    .andExpect(header().string("X-RateLimit-Remaining", String.valueOf(1 - i)));
+        }
+        
+        mockMvc.perform(post("/api/auth/login")
+                        .with(remote("10.0.0.1"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists("Retry-After"))
+                .andExpect(header().string("X-RateLimit-Remaining", "0"))
+                .andExpect(jsonPath("$.message").value("Too many requests, please retry later"));
+        
+        // A different address has its own bucket
+        mockMvc.perform(post("/api/auth/login")
+                        .with(remote("10.0.0.2"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isUnauthorized());
+    }
+    
+    @Test
+    void shouldLimitAuthenticatedClientsPerUser() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(get("/api/sweets").header("Authorization", "Bearer " + firstToken))
+                    .andExpect(status().isOk());
+        }
+        mockMvc.perform(get("/api/sweets").header("Authorization", "Bearer " + firstToken))
+                .andExpect(status().isTooManyRequests());
+        
+        // Same address, different user
+        mockMvc.perform(get("/api/sweets").header("Authorization", "Bearer " + secondToken))
+                .andExpect(status().isOk());
+    }
+    
+    @Test
+    void shouldClassifyRoutes() {
+        assertEquals(RateLimitFilter.RouteGroup.AUTH, RateLimitFilter.routeGroup("POST", "/api/auth/login"));
+        assertEquals(RateLimitFilter.RouteGroup.CATALOG, RateLimitFilter.routeGroup("GET", "/api/sweets/search"));
+        assertEquals(RateLimitFilter.RouteGroup.PURCHASE, RateLimitFilter.routeGroup("POST", "/api/sweets/1/purchase"));
+        assertEquals(RateLimitFilter.RouteGroup.ADMIN, RateLimitFilter.routeGroup("POST", "/api/sweets/1/restock"));
+        assertEquals(RateLimitFilter.RouteGroup.ADMIN, RateLimitFilter.routeGroup("GET", "/api/admin/alerts"));
+        assertNull(RateLimitFilter.routeGroup("GET", "/favicon.ico"));
+    }
+    
+    private RequestPostProcessor remote(String address) {
+        return request -> {
+            request.setRemoteAddr(address);
+            return request;
+        };
+    }
+    
+    private String tokenFor(String email) {
+        User user = userRepository.save(User.builder()
+                .email(email)
+                .password("unused")
+                .name("Rate Limited")
+                .role(User.Role.USER)
+                .build());
+        return jwtUtil.generateToken(user, user.getId(), "user");
+    }
+}
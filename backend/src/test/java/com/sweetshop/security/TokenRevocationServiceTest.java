@@ -0,0 +1,64 @@
+package com.sweetshop.security;
+
+import com.sweetshop.repository.RevokedTokenRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Date;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class TokenRevocationServiceTest {
+    
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+    
+    @Autowired
+    private RevokedTokenRepository revokedTokenRepository;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @BeforeEach
+    void setUp() {
+        revokedTokenRepository.deleteAll();
+        tokenRevocationService.refresh();
+    }
+    
+    @Test
+    void shouldKeepRevocationWhenRefreshRunsBeforeCommit() {
+        Date expiresAt = new Date(System.currentTimeMillis() + 60_000);
+        
+        transactionTemplate.executeWithoutResult(status -> {
+            tokenRevocationService.revoke("jti-during-refresh", 1L, expiresAt);
+            // Another thread's refresh cannot see the uncommitted row
+            CompletableFuture.runAsync(tokenRevocationService::refresh).orTimeout(10, TimeUnit.SECONDS).join();
+            assertFalse(tokenRevocationService.isRevoked("jti-during-refresh"));
+        });
+        
+        assertTrue(tokenRevocationService.isRevoked("jti-during-refresh"));
+        tokenRevocationService.refresh();
+        assertTrue(tokenRevocationService.isRevoked("jti-during-refresh"));
+    }
+    
+    @Test
+    void shouldForgetRevocationWhenLogoutRollsBack() {
+        Date expiresAt = new Date(System.currentTimeMillis() + 60_000);
+        
+        transactionTemplate.executeWithoutResult(status -> {
+            tokenRevocationService.revoke("jti-rolled-back", 1L, expiresAt);
+            status.setRollbackOnly();
+        });
+        
+        assertFalse(tokenRevocationService.isRevoked("jti-rolled-back"));
+    }
+}
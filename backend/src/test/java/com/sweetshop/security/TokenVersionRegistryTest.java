@@ -0,0 +1,67 @@
+package com.sweetshop.security;
+
+import com.sweetshop.entity.User;
+import com.sweetshop.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "user-cache.max-size=10")
+@ActiveProfiles("test")
+class TokenVersionRegistryTest {
+    
+    @Autowired
+    private TokenVersionRegistry tokenVersionRegistry;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    private final List<User> users = new ArrayList<>();
+    
+    @BeforeEach
+    void setUp() {
+        userRepository.deleteAll();
+        users.clear();
+        for (int i = 0; i < 30; i++) {
+            users.add(userRepository.save(User.builder()
+                    .email("versions" + i + "@example.com")
+                    .password("unused")
+                    .name("User " + i)
+                    .role(User.Role.USER)
+                    .build()));
+        }
+    }
+    
+    @Test
+    void shouldStayBoundedAndReadEvictedUsersFromDatabase() {
+        for (User user : users) {
+            assertTrue(tokenVersionRegistry.isCurrent(user.getId(), 0));
+        }
+        assertTrue(tokenVersionRegistry.getCachedUserCount() <= 10);
+        
+        // Bumped behind the cache's back: once evicted, the next check reads the new version
+        User first = users.get(0);
+        jdbcTemplate.update("UPDATE users SET token_version = 1 WHERE id = ?", first.getId());
+        tokenVersionRegistry.evict(first.getId());
+        
+        assertFalse(tokenVersionRegistry.isCurrent(first.getId(), 0));
+        assertTrue(tokenVersionRegistry.isCurrent(first.getId(), 1));
+    }
+    
+    @Test
+    void shouldRejectTokensOfUnknownUsers() {
+        assertFalse(tokenVersionRegistry.isCurrent(-1L, 0));
+    }
+}
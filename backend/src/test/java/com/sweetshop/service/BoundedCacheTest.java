@@ -0,0 +1,74 @@
+package com.sweetshop.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedCacheTest {
+    
+    private static final long LATER = Long.MAX_VALUE;
+    
+    @Test
+    void shouldDropLoadThatRacedWithInvalidation() {
+        BoundedCache<String, String> cache = new BoundedCache<>(10);
+        
+        // A loader reads the old row, then a committed change invalidates the key before it stores it
+        long generation = cache.generation();
+        cache.invalidate("user@example.com");
+        boolean stored = cache.putIfUnchanged("user@example.com", "stale", LATER, generation);
+        
+        assertFalse(stored);
+        assertNull(cache.get("user@example.com"));
+    }
+    
+    @Test
+    void shouldStoreLoadWithoutInterveningInvalidation() {
+        BoundedCache<String, String> cache = new BoundedCache<>(10);
+        
+        long generation = cache.generation();
+        assertTrue(cache.putIfUnchanged("user@example.com", "fresh", LATER, generation));
+        assertEquals("fresh", cache.get("user@example.com"));
+        
+        cache.invalidate("user@example.com");
+        assertNull(cache.get("user@example.com"));
+    }
+    
+    @Test
+    void shouldNotServeExpiredEntries() {
+        BoundedCache<String, String> cache = new BoundedCache<>(10);
+        
+        cache.put("gone", "value", System.currentTimeMillis() - 1);
+        
+        assertNull(cache.get("gone"));
+        assertEquals(0, cache.size());
+    }
+    
+    @Test
+    void shouldEvictExpiredEntriesFirstThenStayWithinBound() {
+        BoundedCache<Integer, String> cache = new BoundedCache<>(10);
+        cache.put(-1, "expired", System.currentTimeMillis() - 1);
+        for (int i = 0; i < 9; i++) {
+            cache.put(i, "live", LATER);
+        }
+        
+        cache.put(9, "live", LATER);
+        assertEquals(10, cache.size());
+        assertNull(cache.get(-1));
+        
+        for (int i = 10; i < 50; i++) {
+            cache.put(i, "live", LATER);
+            assertTrue(cache.size() <= 10);
+        }
+        assertEquals("live", cache.get(49));
+    }
+    
+    @Test
+    void shouldNotCacheWhenDisabled() {
+        BoundedCache<String, String> cache = new BoundedCache<>(0);
+        
+        cache.put("key", "value", LATER);
+        
+        assertFalse(cache.putIfUnchanged("key", "value", LATER, cache.generation()));
+        assertNull(cache.get("key"));
+    }
+}
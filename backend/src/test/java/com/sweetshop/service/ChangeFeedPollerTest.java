@@ -0,0 +1,166 @@
+package com.sweetshop.service;
+
+import com.sweetshop.dto.StockThresholdRequest;
+import com.sweetshop.entity.ChangeFeedEntry;
+import com.sweetshop.entity.Sweet;
+import com.sweetshop.entity.User;
+import com.sweetshop.repository.ChangeFeedRepository;
+import com.sweetshop.repository.SweetRepository;
+import com.sweetshop.repository.UserRepository;
+import com.sweetshop.security.JwtUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+// Own database, so pollers of other cached test contexts do not consume or acknowledge these rows
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:change-feed;DB_CLOSE_DELAY=-1",
+        "change-feed.node-id=this-node",
+        "change-feed.poll-interval-ms=600000",
+        "change-feed.compaction-interval-ms=600000"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ChangeFeedPollerTest {
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private ChangeFeedPoller changeFeedPoller;
+    
+    @Autowired
+    private ChangeFeedRepository changeFeedRepository;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private SweetRepository sweetRepository;
+    
+    @Autowired
+    private StockAlertService stockAlertService;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private JwtUtil jwtUtil;
+    
+    private User user;
+    private String userToken;
+    
+    @BeforeEach
+    void setUp() {
+        sweetRepository.deleteAll();
+        userRepository.deleteAll();
+        changeFeedPoller.poll();
+        
+        user = userRepository.save(User.builder()
+                .email("user@example.com")
+                .password("unused")
+                .name("Regular User")
+                .role(User.Role.USER)
+                .build());
+        userToken = jwtUtil.generateToken(user, user.getId(), "user");
+    }
+    
+    @Test
+    void shouldInvalidateCachedUserOnRemoteChange() throws Exception {
+        expectProfileRole("user");
+        
+        // Another instance changes the row and records the change in the same transaction
+        jdbcTemplate.update("UPDATE users SET role = 'ADMIN' WHERE id = ?", user.getId());
+        changeFeedRepository.save(ChangeFeedEntry.builder()
+                .entityType(ChangeFeedEntry.EntityType.USER)
+                .entityId(user.getId())
+                .entityKey(user.getEmail())
+                .nodeId("other-node")
+                .build());
+        expectProfileRole("user");
+        
+        long applied = changeFeedPoller.getAppliedCount();
+        changeFeedPoller.poll();
+        
+        expectProfileRole("admin");
+        assertEquals(applied + 1, changeFeedPoller.getAppliedCount());
+        assertEquals(changeFeedRepository.findMaxSeq(), changeFeedPoller.getPosition());
+    }
+    
+    @Test
+    void shouldReloadCachedThresholdsOnRemoteChange() {
+        jdbcTemplate.update("DELETE FROM stock_thresholds");
+        stockAlertService.saveThreshold(StockThresholdRequest.builder().sweetId(42L).threshold(3).build());
+        stockAlertService.saveThreshold(StockThresholdRequest.builder().category(Sweet.Category.Candy).threshold(8).build());
+        changeFeedPoller.poll();
+        
+        // Another instance drops the sweet's threshold and raises the category's
+        jdbcTemplate.update("DELETE FROM stock_thresholds WHERE sweet_id = 42");
+        jdbcTemplate.update("UPDATE stock_thresholds SET threshold = 12 WHERE category = 'Candy'");
+        changeFeedRepository.save(ChangeFeedEntry.builder()
+                .entityType(ChangeFeedEntry.EntityType.STOCK_THRESHOLD)
+                .entityId(42L)
+                .nodeId("other-node")
+                .build());
+        changeFeedRepository.save(ChangeFeedEntry.builder()
+                .entityType(ChangeFeedEntry.EntityType.STOCK_THRESHOLD)
+                .entityKey("Candy")
+                .nodeId("other-node")
+                .build());
+        assertEquals(3, stockAlertService.getThreshold(42L, Sweet.Category.Candy));
+        
+        changeFeedPoller.poll();
+        
+        assertEquals(12, stockAlertService.getThreshold(42L, Sweet.Category.Candy));
+        assertEquals(12, stockAlertService.getThreshold(7L, Sweet.Category.Candy));
+    }
+    
+    @Test
+    void shouldRecordMutationsAndCompactAcknowledgedRows() throws Exception {
+        Sweet sweet = sweetRepository.save(Sweet.builder()
+                .name("Feed Fudge")
+                .category(Sweet.Category.Candy)
+                .price(new BigDecimal("2.00"))
+                .quantity(10)
+                .build());
+        
+        mockMvc.perform(post("/api/sweets/" + sweet.getId() + "/purchase")
+                        .header("Authorization", "Bearer " + userToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"quantity\": 2}"))
+                .andExpect(status().isOk());
+        
+        assertTrue(changeFeedRepository.findAll().stream().anyMatch(entry ->
+                entry.getEntityType() == ChangeFeedEntry.EntityType.SWEET
+                        && entry.getEntityId().equals(sweet.getId())
+                        && entry.getNodeId().equals("this-node")));
+        
+        long applied = changeFeedPoller.getAppliedCount();
+        changeFeedPoller.poll();
+        changeFeedPoller.compact();
+        
+        // Own changes are already applied locally
+        assertEquals(applied, changeFeedPoller.getAppliedCount());
+        assertEquals(0, changeFeedRepository.count());
+    }
+    
+    private void expectProfileRole(String role) throws Exception {
+        mockMvc.perform(get("/api/auth/profile")
+                        .header("Authorization", "Bearer " + userToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.user.role").value(role));
+    }
+}
@@ -0,0 +1,128 @@
+package com.sweetshop.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+    
+    @Test
+    void shouldShareOneLoadBetweenConcurrentCallers() throws Exception {
+        SingleFlight<String, Integer> flights = new SingleFlight<>();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            results.add(callers.submit(() -> flights.execute("key", () -> {
+                loads.incrementAndGet();
+                loading.countDown();
+                await(release);
+                return 42;
+            })));
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+            
+            for (int i = 0; i < 7; i++) {
+                results.add(callers.submit(() -> flights.execute("key", () -> {
+                    loads.incrementAndGet();
+                    return -1;
+                })));
+            }
+            while (flights.getCoalesced() < 7) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+            
+            for (Future<Integer> result : results) {
+                assertEquals(42, result.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, loads.get());
+            assertEquals(1, flights.getExecutions());
+            assertEquals(7, flights.getCoalesced());
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+    
+    @Test
+    void shouldShareFailuresAndRetryAfterwards() throws Exception {
+        SingleFlight<String, Integer> flights = new SingleFlight<>();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        
+        try {
+            Future<Integer> first = callers.submit(() -> flights.execute("key", () -> {
+                loading.countDown();
+                await(release);
+                throw new RuntimeException("Sweet not found");
+            }));
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+            Future<Integer> second = callers.submit(() -> flights.execute("key", () -> 1));
+            while (flights.getCoalesced() < 1) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+            
+            Exception error = assertThrows(Exception.class, () -> second.get(5, TimeUnit.SECONDS));
+            assertEquals("Sweet not found", error.getCause().getMessage());
+            assertThrows(Exception.class, () -> first.get(5, TimeUnit.SECONDS));
+            
+            // Nothing is cached once the flight has landed
+            assertEquals(7, flights.execute("key", () -> 7));
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+    
+    @Test
+    void shouldReleaseWaitersWhenLoaderThrowsError() throws Exception {
+        SingleFlight<String, Integer> flights = new SingleFlight<>();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        
+        try {
+            Future<Integer> first = callers.submit(() -> flights.execute("key", () -> {
+                loading.countDown();
+                await(release);
+                throw new OutOfMemoryError("Loader failed");
+            }));
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+            Future<Integer> second = callers.submit(() -> flights.execute("key", () -> 1));
+            while (flights.getCoalesced() < 1) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+            
+            Exception error = assertThrows(ExecutionException.class, () -> second.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(OutOfMemoryError.class, error.getCause());
+            error = assertThrows(ExecutionException.class, () -> first.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(OutOfMemoryError.class, error.getCause());
+            
+            assertEquals(7, flights.execute("key", () -> 7));
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+    
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package com.sweetshop.service;
+
+import com.sweetshop.entity.StockLease;
+import com.sweetshop.entity.Sweet;
+import com.sweetshop.entity.User;
+import com.sweetshop.repository.StockLeaseRepository;
+import com.sweetshop.repository.SweetRepository;
+import com.sweetshop.repository.UserRepository;
+import com.sweetshop.security.JwtUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:stock-leasing;DB_CLOSE_DELAY=-1",
+        "stock-leasing.enabled=true",
+        "stock-leasing.block-size=5",
+        "stock-leasing.flush-interval-ms=600000",
+        "stock-leasing.lease-ttl-ms=600000"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class StockLeaseServiceTest {
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private StockLeaseService stockLeaseService;
+    
+    @Autowired
+    private StockLeaseRepository stockLeaseRepository;
+    
+    @Autowired
+    private SweetRepository sweetRepository;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private JwtUtil jwtUtil;
+    
+    private String userToken;
+    private String adminToken;
+    private Sweet sweet;
+    
+    @BeforeEach
+    void setUp() {
+        stockLeaseRepository.deleteAll();
+        sweetRepository.deleteAll();
+        userRepository.deleteAll();
+        
+        User user = userRepository.save(User.builder()
+                .email("user@example.com")
+                .password("unused")
+                .name("Regular User")
+                .role(User.Role.USER)
+                .build());
+        userToken = jwtUtil.generateToken(user, user.getId(), "user");
+        
+        User admin = userRepository.save(User.builder()
+                .email("admin@example.com")
+                .password("unused")
+                .name("Admin User")
+                .role(User.Role.ADMIN)
+                .build());
+        adminToken = jwtUtil.generateToken(admin, admin.getId(), "admin");
+        
+        sweet = sweetRepository.save(Sweet.builder()
+                .name("Leased Fudge")
+                .category(Sweet.Category.Candy)
+                .price(new BigDecimal("2.00"))
+                .quantity(12)
+                .build());
+    }
+    
+    @AfterEach
+    void returnLeases() {
+        stockLeaseService.shutdown();
+    }
+    
+    @Test
+    void shouldSellFromLeaseAndReportLeasedUnits() throws Exception {
+        purchase(2).andExpect(status().isOk())
+                .andExpect(jsonPath("$.sweet.quantity").value(10));
+        
+        // One block left the row; the rest of it is sold from memory
+        assertEquals(7, dbQuantity());
+        purchase(3).andExpect(status().isOk())
+                .andExpect(jsonPath("$.sweet.quantity").value(7));
+        assertEquals(7, dbQuantity());
+        
+        mockMvc.perform(get("/api/sweets/" + sweet.getId())
+                        .header("Authorization", "Bearer " + userToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.sweet.quantity").value(7));
+        
+        stockLeaseService.shutdown();
+        assertEquals(7, dbQuantity());
+        assertEquals(0, stockLeaseRepository.count());
+    }
+    
+    @Test
+    void shouldRenewLeaseUntilStockRunsOut() throws Exception {
+        purchase(4).andExpect(status().isOk());
+        purchase(4).andExpect(status().isOk());
+        purchase(4).andExpect(status().isOk())
+                .andExpect(jsonPath("$.sweet.quantity").value(0));
+        
+        purchase(1).andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.available").value(0));
+    }
+    
+    @Test
+    void shouldFlushRemainingUnitsToLeaseRow() throws Exception {
+        purchase(2).andExpect(status().isOk());
+        stockLeaseService.flush();
+        
+        StockLease lease = stockLeaseRepository.findAll().get(0);
+        assertEquals(3, lease.getUnits());
+        assertTrue(lease.getExpiresAt().isAfter(LocalDateTime.now()));
+    }
+    
+    @Test
+    void shouldReclaimExpiredLeaseOfAnotherInstance() {
+        sweet.setQuantity(8);
+        sweetRepository.save(sweet);
+        stockLeaseRepository.save(StockLease.builder()
+                .sweetId(sweet.getId())
+                .nodeId("gone-node")
+                .units(4)
+                .expiresAt(LocalDateTime.now().minusSeconds(1))
+                .build());
+        
+        stockLeaseService.reclaimExpired();
+        
+        assertEquals(12, dbQuantity());
+        assertEquals(0, stockLeaseRepository.count());
+    }
+    
+    @Test
+    void shouldNotCountSalesTwiceAfterLeaseWasReclaimed() throws Exception {
+        purchase(2).andExpect(status().isOk());
+        assertEquals(7, dbQuantity());
+        
+        // Another instance reclaims the lease while this one stalls: the row's 5 units go back
+        StockLease row = stockLeaseRepository.findAll().get(0);
+        sweet.setQuantity(dbQuantity() + row.getUnits());
+        sweetRepository.save(sweet);
+        stockLeaseRepository.delete(row);
+        
+        // The 2 units sold since the last flush went back with them and come off again
+        stockLeaseService.flush();
+        assertEquals(10, dbQuantity());
+        
+        stockLeaseService.shutdown();
+        assertEquals(10, dbQuantity());
+        assertEquals(0, stockLeaseRepository.count());
+    }
+    
+    @Test
+    void shouldRejectQuantityBelowLeasedUnits() throws Exception {
+        purchase(2).andExpect(status().isOk());
+        
+        // 3 units are still in this instance's lease
+        update(2).andExpect(status().isBadRequest());
+        assertEquals(7, dbQuantity());
+        
+        update(9).andExpect(status().isOk())
+                .andExpect(jsonPath("$.sweet.quantity").value(9));
+        assertEquals(6, dbQuantity());
+        
+        mockMvc.perform(post("/api/sweets/" + sweet.getId() + "/restock")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"quantity\": 4}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.sweet.quantity").value(13));
+        assertEquals(10, dbQuantity());
+    }
+    
+    private ResultActions update(int quantity) throws Exception {
+        return mockMvc.perform(put("/api/sweets/" + sweet.getId())
+                .header("Authorization", "Bearer " + adminToken)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"quantity\": " + quantity + "}"));
+    }
+    
+    private ResultActions purchase(int quantity) throws Exception {
+        return mockMvc.perform(post("/api/sweets/" + sweet.getId() + "/purchase")
+                .header("Authorization", "Bearer " + userToken)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"quantity\": " + quantity + "}"));
+    }
+    
+    private int dbQuantity() {
+        return sweetRepository.findById(sweet.getId()).orElseThrow().getQuantity();
+    }
+}
@@ -0,0 +1 @@
+CREATE TABLE IF NOT EXISTS store_stock (store_id BIGINT NOT NULL, sweet_id BIGINT NOT NULL, quantity INT NOT NULL, updated_at TIMESTAMP NOT NULL, PRIMARY KEY (store_id, sweet_id));